@@ -0,0 +1,89 @@
+package com.ssl.tools.benchmark;
+
+import com.ssl.tools.PDFModel;
+import com.ssl.tools.pdf.OutputProfile;
+import com.ssl.tools.pdf.PdfUtil;
+import com.ssl.tools.pdf.StampOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 描述：各输出压缩方式的对比
+ * <p>
+ * 吞吐看jmh结果，输出文件大小在每组参数结束时打印。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OutputProfileBenchmark {
+
+    @Param({"DEFAULT", "FAST", "COMPACT"})
+    public OutputProfile profile;
+
+    @Param({"200"})
+    public int fields;
+
+    private File pdf;
+    private File output;
+    private StampOptions options;
+    private List<PDFModel> list;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        PdfStampBenchmark.checkFont();
+        pdf = File.createTempFile("template", ".pdf");
+        try (InputStream in = OutputProfileBenchmark.class.getClassLoader().getResourceAsStream("stdlib-3.4.pdf")) {
+            Files.copy(in, pdf.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        output = File.createTempFile("stamped", ".pdf");
+        options = new StampOptions();
+        options.setOutputProfile(profile);
+        list = PdfStampBenchmark.createFields(fields);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        System.out.println(profile + " output bytes: " + output.length());
+        pdf.delete();
+        output.delete();
+    }
+
+    @Benchmark
+    public void createText() throws IOException {
+        PdfUtil.createText(pdf, output.getPath(), list, options);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OutputProfileBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
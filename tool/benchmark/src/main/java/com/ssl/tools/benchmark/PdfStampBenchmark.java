@@ -0,0 +1,152 @@
+package com.ssl.tools.benchmark;
+
+import com.itextpdf.io.font.FontProgram;
+import com.ssl.tools.PDFModel;
+import com.ssl.tools.pdf.PdfFontRegistry;
+import com.ssl.tools.pdf.PdfTemplate;
+import com.ssl.tools.pdf.PdfUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 描述：盖章基准测试
+ * <p>
+ * 在tool自带的两个模板上创建N个表单域，Throughput看吞吐，SampleTime看延迟分位数，
+ * 加上 -prof gc 看每次操作的分配量。
+ * <p>
+ * 仓库中不带字体文件，运行前把一个中文ttf放到benchmark/src/main/resources/font/STKAITI.TTF，否则直接失败。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PdfStampBenchmark {
+
+    /**
+     * 表单域使用的字体
+     */
+    static final String FONT = "STKAITI.TTF";
+
+    @Param({"stdlib-3.4.pdf", "stdlib-3.4-update.pdf"})
+    public String template;
+
+    @Param({"10", "200", "2000"})
+    public int fields;
+
+    private File pdf;
+    private File output;
+    private PdfTemplate compiled;
+    private List<PDFModel> list;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        checkFont();
+        // 模板打包在tool的jar里，先拷贝成文件
+        pdf = File.createTempFile("template", ".pdf");
+        try (InputStream in = PdfStampBenchmark.class.getClassLoader().getResourceAsStream(template)) {
+            Files.copy(in, pdf.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        output = File.createTempFile("stamped", ".pdf");
+        compiled = PdfTemplate.compile(pdf);
+        list = createFields(fields);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        compiled.close();
+        pdf.delete();
+        output.delete();
+    }
+
+    /**
+     * 现有的入口：读文件、写文件
+     */
+    @Benchmark
+    public void createText() throws IOException, InterruptedException {
+        PdfUtil.createText(pdf, output.getPath(), list);
+    }
+
+    /**
+     * 预编译模板，输出丢弃，只看cpu和内存
+     */
+    @Benchmark
+    public void compiledTemplate() throws IOException {
+        compiled.createText(NullOutputStream.INSTANCE, list);
+    }
+
+    /**
+     * 找不到字体时PdfFontRegistry会退回不嵌入的STSong-Light，测到的就不是嵌入、子集的路径了，直接失败
+     */
+    static void checkFont() throws IOException {
+        FontProgram fontProgram = PdfFontRegistry.getFontProgram(FONT);
+        if (!PdfFontRegistry.createFont(FONT).isEmbedded() || fontProgram.getGlyph('甲') == null) {
+            throw new IllegalStateException("no embeddable CJK font " + FONT
+                    + " on the classpath, put one into benchmark/src/main/resources/font/ and rebuild");
+        }
+    }
+
+    static List<PDFModel> createFields(int count) {
+        List<PDFModel> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PDFModel model = new PDFModel();
+            model.setFont(FONT);
+            model.setFontSize(12);
+            model.setHeight(20F);
+            model.setWidth(200F);
+            model.setName("field" + (i % 50));
+            model.setPage(1 + i % 5);
+            model.setPositionX(20F + (i % 3) * 200);
+            model.setPositionY(20F + (i / 3 % 35) * 22);
+            model.setValue("甲方名称" + i);
+            list.add(model);
+        }
+        return list;
+    }
+
+    private static class NullOutputStream extends OutputStream {
+        private static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PdfStampBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -13,6 +13,9 @@ import java.io.Serializable;
  * *                 "fontSize": "字体大小",
  * *                 "name":"表单域的名称",
  * *                 "value":"表单域的值，可选"
+ * *                 "autoFontSize":"是否按宽高自动缩小字号，可选，此时fontSize为最大字号"
+ * *                 "multiline":"是否多行，可选，按宽度自动换行，值中的换行符强制换行"
+ * *                 "image":"图片，可选，文件路径、classpath:路径或URL，填写时为图片域（印章、签名），不使用font和value"
  */
 public class PDFModel implements Serializable {
     /**
@@ -43,6 +46,18 @@ public class PDFModel implements Serializable {
     private String value;
 
     private String font;
+    /**
+     * "autoFontSize":"是否按宽高自动缩小字号，可选，此时fontSize为最大字号"
+     */
+    private Boolean autoFontSize;
+    /**
+     * "multiline":"是否多行，可选，按宽度自动换行，值中的换行符强制换行"
+     */
+    private Boolean multiline;
+    /**
+     * "image":"图片，可选，文件路径、classpath:路径或URL，填写时为图片域（印章、签名），不使用font和value"
+     */
+    private String image;
 
     public Integer getFontSize() {
         return fontSize;
@@ -80,6 +95,18 @@ public class PDFModel implements Serializable {
         return font;
     }
 
+    public Boolean getAutoFontSize() {
+        return autoFontSize;
+    }
+
+    public Boolean getMultiline() {
+        return multiline;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
     public void setFontSize(Integer fontSize) {
         this.fontSize = fontSize;
     }
@@ -115,4 +142,16 @@ public class PDFModel implements Serializable {
     public void setFont(String font) {
         this.font = font;
     }
+
+    public void setAutoFontSize(Boolean autoFontSize) {
+        this.autoFontSize = autoFontSize;
+    }
+
+    public void setMultiline(Boolean multiline) {
+        this.multiline = multiline;
+    }
+
+    public void setImage(String image) {
+        this.image = image;
+    }
 }
@@ -0,0 +1,200 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 描述：文本域外观缓存
+ * <p>
+ * 宽、高、字体、字号、是否多行、值都相同的表单域，在同一个文档内共用同一个外观XObject，输出中只写一份。
+ * 外观的内容流还按同样的key在进程内缓存（内容流和值合计最多{@link #MAX_CONTENT_BYTES}字节），其他文档遇到相同的表单域时直接复用，不再重新生成。
+ * 内容流里的字形编码只取决于字体文件，资源名固定为XObject中的第一个字体，所以可以跨文档复用。
+ * 字体按文件名和大小标识，不引用FontProgram，{@link PdfFontRegistry}淘汰字体时一并删除该字体的内容流。
+ */
+class AppearanceCache {
+
+    private static final long MAX_CONTENT_BYTES = 8L * 1024 * 1024;
+
+    private static final LinkedHashMap<Key, byte[]> CONTENTS = new LinkedHashMap<>(16, 0.75f, true);
+    private static long contentBytes;
+
+    private final PdfDocument pdfDocument;
+    /**
+     * 本文档中已经生成的外观
+     */
+    private final Map<Key, Appearance> appearances = new HashMap<>();
+
+    AppearanceCache(PdfDocument pdfDocument) {
+        this.pdfDocument = pdfDocument;
+    }
+
+    /**
+     * 取外观，没有时生成
+     *
+     * @param font      本文档的字体
+     * @param fontId    字体文件的标识，见{@link DocumentFonts#getId(PdfFont)}
+     * @param fontSize  字号
+     * @param width     表单域宽
+     * @param height    表单域高
+     * @param multiline 是否多行
+     * @param value     值，可以为null
+     */
+    Appearance get(PdfFont font, String fontId, float fontSize, float width, float height, boolean multiline, String value) {
+        Key key = new Key(fontId, fontSize, width, height, multiline, value);
+        Appearance appearance = appearances.get(key);
+        if (appearance != null) {
+            return appearance;
+        }
+        Rectangle bBox = new Rectangle(0, 0, width, height);
+        PdfFormXObject xObject = new PdfFormXObject(bBox);
+        PdfName fontName = xObject.getResources().addFont(pdfDocument, font);
+
+        byte[] content;
+        synchronized (CONTENTS) {
+            content = CONTENTS.get(key);
+        }
+        if (content == null) {
+            PdfCanvas canvas = new PdfCanvas(xObject, pdfDocument);
+            canvas.beginMarkedContent(PdfName.Tx);
+            if (multiline) {
+                FieldStamper.showLines(canvas, bBox, font, fontSize, value);
+            } else {
+                FieldStamper.showText(canvas, bBox, font, fontSize, value);
+            }
+            canvas.endMarkedContent();
+            content = xObject.getPdfObject().getBytes();
+            synchronized (CONTENTS) {
+                byte[] previous = CONTENTS.put(key, content);
+                contentBytes += size(key, content) - (previous == null ? 0 : size(key, previous));
+                evict();
+            }
+        } else {
+            xObject.getPdfObject().setData(content);
+            // 没有经过canvas，需要告诉字体用到了哪些字形，否则子集里会缺字；
+            // 多行时按画出的行转换，换行符不是字形
+            if (multiline && value != null && !value.isEmpty()) {
+                for (String line : FieldStamper.visibleLines(font, fontSize, bBox, value)) {
+                    font.convertToBytes(line);
+                }
+            } else if (value != null) {
+                font.convertToBytes(value);
+            }
+        }
+        appearance = new Appearance(xObject, fontName);
+        appearances.put(key, appearance);
+        return appearance;
+    }
+
+    /**
+     * 内容流和值（key中占用最多的部分）的大小
+     */
+    private static long size(Key key, byte[] content) {
+        return content.length + (key.value == null ? 0 : 2L * key.value.length());
+    }
+
+    private static void evict() {
+        Iterator<Map.Entry<Key, byte[]>> iterator = CONTENTS.entrySet().iterator();
+        while (contentBytes > MAX_CONTENT_BYTES && iterator.hasNext()) {
+            Map.Entry<Key, byte[]> eldest = iterator.next();
+            iterator.remove();
+            contentBytes -= size(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    /**
+     * 删除一个字体的全部内容流，字体被淘汰时调用
+     */
+    static void removeFont(String fontId) {
+        synchronized (CONTENTS) {
+            Iterator<Map.Entry<Key, byte[]>> iterator = CONTENTS.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, byte[]> entry = iterator.next();
+                if (entry.getKey().fontId.equals(fontId)) {
+                    iterator.remove();
+                    contentBytes -= size(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * 清空进程内的外观缓存
+     */
+    static void clear() {
+        synchronized (CONTENTS) {
+            CONTENTS.clear();
+            contentBytes = 0;
+        }
+    }
+
+    static class Appearance {
+        final PdfFormXObject xObject;
+        /**
+         * 外观中字体的资源名，默认外观DA中要用
+         */
+        final PdfName fontName;
+
+        private Appearance(PdfFormXObject xObject, PdfName fontName) {
+            this.xObject = xObject;
+            this.fontName = fontName;
+        }
+    }
+
+    private static class Key {
+        /**
+         * 字体文件的标识，不引用FontProgram，缓存不会让已淘汰的字体留在内存中
+         */
+        private final String fontId;
+        private final float fontSize;
+        private final float width;
+        private final float height;
+        private final boolean multiline;
+        private final String value;
+
+        private Key(String fontId, float fontSize, float width, float height, boolean multiline, String value) {
+            this.fontId = fontId;
+            this.fontSize = fontSize;
+            this.width = width;
+            this.height = height;
+            this.multiline = multiline;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return fontId.equals(key.fontId)
+                    && Float.compare(fontSize, key.fontSize) == 0
+                    && Float.compare(width, key.width) == 0
+                    && Float.compare(height, key.height) == 0
+                    && multiline == key.multiline
+                    && (value == null ? key.value == null : value.equals(key.value));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = fontId.hashCode();
+            result = 31 * result + Float.floatToIntBits(fontSize);
+            result = 31 * result + Float.floatToIntBits(width);
+            result = 31 * result + Float.floatToIntBits(height);
+            result = 31 * result + (multiline ? 1 : 0);
+            result = 31 * result + (value == null ? 0 : value.hashCode());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ssl.tools.pdf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 描述：批量盖章的汇总结果，results与提交任务的顺序一致
+ */
+public class BatchReport {
+
+    private final List<StampResult> results;
+    /**
+     * 整批耗时，毫秒
+     */
+    private final long elapsedMillis;
+
+    public BatchReport(List<StampResult> results, long elapsedMillis) {
+        this.results = Collections.unmodifiableList(results);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<StampResult> getResults() {
+        return results;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public int getSuccessCount() {
+        int count = 0;
+        for (StampResult result : results) {
+            if (result.isSuccess()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getFailureCount() {
+        return results.size() - getSuccessCount();
+    }
+
+    /**
+     * 失败的任务
+     */
+    public List<StampResult> getFailures() {
+        List<StampResult> failures = new ArrayList<>();
+        for (StampResult result : results) {
+            if (!result.isSuccess()) {
+                failures.add(result);
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchReport{total=" + results.size() + ", success=" + getSuccessCount()
+                + ", failure=" + getFailureCount() + ", elapsedMillis=" + elapsedMillis + "}";
+    }
+}
@@ -0,0 +1,60 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.io.source.IRandomAccessSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 描述：基于ByteBuffer的随机读取源，按绝对位置读取，不修改buffer的position，可以多线程共用。
+ * 关闭时不释放buffer，buffer由调用方管理。
+ */
+class ByteBufferSource implements IRandomAccessSource {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferSource(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    /**
+     * 只读映射整个文件，映射建立后即关闭通道，映射由GC回收。文件不能超过2G
+     */
+    static ByteBufferSource map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new ByteBufferSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public int get(long position) {
+        if (position >= buffer.limit()) {
+            return -1;
+        }
+        return buffer.get((int) position) & 0xff;
+    }
+
+    @Override
+    public int get(long position, byte[] bytes, int off, int len) {
+        if (position >= buffer.limit()) {
+            return -1;
+        }
+        int n = (int) Math.min(len, buffer.limit() - position);
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) position);
+        view.get(bytes, off, n);
+        return n;
+    }
+
+    @Override
+    public long length() {
+        return buffer.limit();
+    }
+
+    @Override
+    public void close() {
+    }
+}
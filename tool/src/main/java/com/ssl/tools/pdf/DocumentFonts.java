@@ -0,0 +1,64 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.kernel.font.PdfFont;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 描述：一个文档内使用的字体
+ * <p>
+ * 同一个字体文件在文档中只创建一个PdfFont，所有表单域共用同一个字体资源（不同的font名称落到同一个文件时也共用），
+ * 开启子集时关闭文档只嵌入所有表单域值中用到的字形。
+ */
+class DocumentFonts {
+
+    private final boolean subset;
+    private final StampTrace trace;
+    /**
+     * PDFModel中的font名称 -> 字体
+     */
+    private final Map<String, PdfFont> byName = new HashMap<>();
+    /**
+     * 实际的字体文件 -> 字体
+     */
+    private final Map<String, PdfFont> byFile = new HashMap<>();
+    /**
+     * 字体 -> 字体文件的标识
+     */
+    private final Map<PdfFont, String> ids = new IdentityHashMap<>();
+
+    DocumentFonts(StampOptions options, StampTrace trace) {
+        this.subset = options.isFontSubset();
+        this.trace = trace;
+    }
+
+    PdfFont get(String fontName) throws IOException {
+        PdfFont font = byName.get(fontName);
+        if (font == null) {
+            String file = PdfFontRegistry.resolve(fontName);
+            font = byFile.get(file);
+            if (font == null) {
+                long start = System.nanoTime();
+                font = PdfFontRegistry.createFont(file);
+                font.setSubset(subset);
+                byFile.put(file, font);
+                ids.put(font, PdfFontRegistry.getFontId(file));
+                trace.fontNanos += System.nanoTime() - start;
+            }
+            byName.put(fontName, font);
+        }
+        return font;
+    }
+
+    /**
+     * 字体文件的标识，相同的标识对应相同的字体文件，可以跨文档比较
+     *
+     * @param font 本对象创建的字体
+     */
+    String getId(PdfFont font) {
+        return ids.get(font);
+    }
+}
@@ -0,0 +1,69 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 描述：一个文档内使用的图片
+ * <p>
+ * 同一张图片在文档中只嵌入一个XObject，每一页的印章、签名都引用它，输出中图片数据只有一份。
+ * 不扁平化时图片域的外观按图片和宽高共用，每页同样大小的印章只有一个外观XObject。
+ */
+class DocumentImages {
+
+    private final PdfDocument pdfDocument;
+    /**
+     * PDFModel中的image -> 图片
+     */
+    private final Map<String, PdfImageXObject> images = new HashMap<>();
+    /**
+     * 图片、宽、高 -> 外观
+     */
+    private final Map<String, PdfFormXObject> appearances = new HashMap<>();
+
+    DocumentImages(PdfDocument pdfDocument) {
+        this.pdfDocument = pdfDocument;
+    }
+
+    PdfImageXObject get(String image) throws IOException {
+        PdfImageXObject xObject = images.get(image);
+        if (xObject == null) {
+            xObject = PdfImageRegistry.createXObject(image);
+            images.put(image, xObject);
+        }
+        return xObject;
+    }
+
+    /**
+     * 图片域的外观：图片按比例缩放后居中
+     */
+    PdfFormXObject getAppearance(String image, float width, float height) throws IOException {
+        String key = width + "," + height + "," + image;
+        PdfFormXObject appearance = appearances.get(key);
+        if (appearance == null) {
+            Rectangle bBox = new Rectangle(0, 0, width, height);
+            appearance = new PdfFormXObject(bBox);
+            new PdfCanvas(appearance, pdfDocument).addXObject(get(image), fit(get(image), bBox));
+            appearances.put(key, appearance);
+        }
+        return appearance;
+    }
+
+    /**
+     * 保持宽高比放进矩形，居中
+     */
+    static Rectangle fit(PdfImageXObject image, Rectangle rectangle) {
+        float scale = Math.min(rectangle.getWidth() / image.getWidth(), rectangle.getHeight() / image.getHeight());
+        float width = image.getWidth() * scale;
+        float height = image.getHeight() * scale;
+        return new Rectangle(rectangle.getX() + (rectangle.getWidth() - width) / 2,
+                rectangle.getY() + (rectangle.getHeight() - height) / 2, width, height);
+    }
+}
@@ -0,0 +1,320 @@
+package com.ssl.tools.pdf;
+
+import com.ssl.tools.PDFModel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 描述：按列存放的一批表单域
+ * <p>
+ * 位置、大小、页码、字号放在基本类型数组里，name/value/font/image放在去重后的字符串表中，每个表单域只存下标。
+ * 上游一次传上万个表单域时，比List&lt;PDFModel&gt;少一个表单域一个对象以及Integer装箱的开销。
+ * 非线程安全，填充完成后可以被多个线程只读共用。
+ */
+public class FieldBatch {
+
+    private int size;
+
+    private float[] positionX;
+    private float[] positionY;
+    private float[] width;
+    private float[] height;
+    private int[] page;
+    private int[] fontSize;
+    private boolean[] autoFontSize;
+    private boolean[] multiline;
+    /**
+     * 字符串表下标，-1表示null
+     */
+    private int[] name;
+    private int[] value;
+    private int[] font;
+    private int[] image;
+
+    private String[] strings;
+    private int stringCount;
+    private final Map<String, Integer> stringIndex;
+    /**
+     * 设置最近添加的表单域，不为每个表单域创建对象
+     */
+    private final Field field = new Field();
+
+    public FieldBatch() {
+        this(16);
+    }
+
+    /**
+     * @param capacity 预计的表单域数量
+     */
+    public FieldBatch(int capacity) {
+        capacity = Math.max(capacity, 1);
+        positionX = new float[capacity];
+        positionY = new float[capacity];
+        width = new float[capacity];
+        height = new float[capacity];
+        page = new int[capacity];
+        fontSize = new int[capacity];
+        autoFontSize = new boolean[capacity];
+        multiline = new boolean[capacity];
+        name = new int[capacity];
+        value = new int[capacity];
+        font = new int[capacity];
+        image = new int[capacity];
+        strings = new String[16];
+        stringIndex = new HashMap<>();
+    }
+
+    /**
+     * 从List&lt;PDFModel&gt;转换
+     */
+    public static FieldBatch of(List<PDFModel> list) {
+        FieldBatch batch = new FieldBatch(list.size());
+        for (PDFModel model : list) {
+            batch.add(model);
+        }
+        return batch;
+    }
+
+    /**
+     * 添加一个PDFModel，page必填，fontSize除自动字号和图片域外必填
+     *
+     * @throws IllegalArgumentException 缺少必填项，错误信息中的序号是该表单域在这一批中的下标
+     */
+    public void add(PDFModel model) {
+        int page = getPage(model, size);
+        if (model.getImage() != null) {
+            add(page, model.getPositionX(), model.getPositionY(), model.getWidth(), model.getHeight())
+                    .name(model.getName())
+                    .image(model.getImage());
+            return;
+        }
+        boolean auto = Boolean.TRUE.equals(model.getAutoFontSize());
+        int fontSize = getFontSize(model, auto, size);
+        add(page, model.getPositionX(), model.getPositionY(), model.getWidth(), model.getHeight())
+                .font(model.getFont())
+                .fontSize(fontSize)
+                .autoFontSize(auto)
+                .multiline(Boolean.TRUE.equals(model.getMultiline()))
+                .name(model.getName())
+                .value(model.getValue());
+    }
+
+    /**
+     * PDFModel中的页码
+     *
+     * @param index 表单域的序号，用于报错
+     */
+    static int getPage(PDFModel model, int index) {
+        if (model.getPage() == null) {
+            throw new IllegalArgumentException("field " + index + ": page is required");
+        }
+        return model.getPage();
+    }
+
+    /**
+     * PDFModel中的字号，自动字号时可以不填，只按高度限制
+     *
+     * @param index 表单域的序号，用于报错
+     */
+    static int getFontSize(PDFModel model, boolean autoFontSize, int index) {
+        if (model.getFontSize() != null) {
+            return model.getFontSize();
+        }
+        if (!autoFontSize) {
+            throw new IllegalArgumentException("field " + index + ": fontSize is required unless autoFontSize is set");
+        }
+        return 0;
+    }
+
+    /**
+     * 添加一个表单域，参数含义同{@link PDFModel}，其余属性通过返回的{@link Field}设置：
+     * <pre>
+     * batch.add(1, 50, 700, 200, 30).font("STKAITI.TTF").fontSize(12).name("contract").value("HT-001");
+     * batch.add(1, 400, 600, 120, 120).name("seal").image("seal.png");
+     * </pre>
+     * 未设置的属性：字体为默认字体，字号为0，不自动字号，单行，name、value、image为null
+     *
+     * @return 指向新表单域的Field，每个FieldBatch只有一个，下次add后指向下一个表单域
+     */
+    public Field add(int page, float positionX, float positionY, float width, float height) {
+        if (size == this.page.length) {
+            grow();
+        }
+        this.page[size] = page;
+        this.positionX[size] = positionX;
+        this.positionY[size] = positionY;
+        this.width[size] = width;
+        this.height[size] = height;
+        this.font[size] = -1;
+        this.fontSize[size] = 0;
+        this.autoFontSize[size] = false;
+        this.multiline[size] = false;
+        this.name[size] = -1;
+        this.value[size] = -1;
+        this.image[size] = -1;
+        field.index = size++;
+        return field;
+    }
+
+    /**
+     * 复制另一批中的第i个表单域，页码换成page
+     */
+    void add(FieldBatch batch, int i, int page) {
+        add(page, batch.positionX[i], batch.positionY[i], batch.width[i], batch.height[i])
+                .font(batch.getFont(i))
+                .fontSize(batch.fontSize[i])
+                .autoFontSize(batch.autoFontSize[i])
+                .multiline(batch.multiline[i])
+                .name(batch.getName(i))
+                .value(batch.getValue(i))
+                .image(batch.getImage(i));
+    }
+
+    private void grow() {
+        int capacity = page.length * 2;
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        page = Arrays.copyOf(page, capacity);
+        fontSize = Arrays.copyOf(fontSize, capacity);
+        autoFontSize = Arrays.copyOf(autoFontSize, capacity);
+        multiline = Arrays.copyOf(multiline, capacity);
+        name = Arrays.copyOf(name, capacity);
+        value = Arrays.copyOf(value, capacity);
+        font = Arrays.copyOf(font, capacity);
+        image = Arrays.copyOf(image, capacity);
+    }
+
+    private int intern(String string) {
+        if (string == null) {
+            return -1;
+        }
+        Integer index = stringIndex.get(string);
+        if (index != null) {
+            return index;
+        }
+        if (stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, stringCount * 2);
+        }
+        strings[stringCount] = string;
+        stringIndex.put(string, stringCount);
+        return stringCount++;
+    }
+
+    private String string(int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getPage(int i) {
+        return page[i];
+    }
+
+    public float getPositionX(int i) {
+        return positionX[i];
+    }
+
+    public float getPositionY(int i) {
+        return positionY[i];
+    }
+
+    public float getWidth(int i) {
+        return width[i];
+    }
+
+    public float getHeight(int i) {
+        return height[i];
+    }
+
+    public int getFontSize(int i) {
+        return fontSize[i];
+    }
+
+    public boolean isAutoFontSize(int i) {
+        return autoFontSize[i];
+    }
+
+    public boolean isMultiline(int i) {
+        return multiline[i];
+    }
+
+    public String getFont(int i) {
+        return string(font[i]);
+    }
+
+    public String getName(int i) {
+        return string(name[i]);
+    }
+
+    public String getValue(int i) {
+        return string(value[i]);
+    }
+
+    /**
+     * 图片域的图片，文本域为null
+     */
+    public String getImage(int i) {
+        return string(image[i]);
+    }
+
+    /**
+     * 设置最近一次{@link #add(int, float, float, float, float)}添加的表单域
+     */
+    public class Field {
+        private int index;
+
+        private Field() {
+        }
+
+        /**
+         * ttf文件名，null时用默认字体
+         */
+        public Field font(String font) {
+            FieldBatch.this.font[index] = intern(font);
+            return this;
+        }
+
+        public Field fontSize(int fontSize) {
+            FieldBatch.this.fontSize[index] = fontSize;
+            return this;
+        }
+
+        /**
+         * 按宽高自动缩小字号，此时fontSize为最大字号，0表示只按高度限制
+         */
+        public Field autoFontSize(boolean autoFontSize) {
+            FieldBatch.this.autoFontSize[index] = autoFontSize;
+            return this;
+        }
+
+        public Field multiline(boolean multiline) {
+            FieldBatch.this.multiline[index] = multiline;
+            return this;
+        }
+
+        public Field name(String name) {
+            FieldBatch.this.name[index] = intern(name);
+            return this;
+        }
+
+        public Field value(String value) {
+            FieldBatch.this.value[index] = intern(value);
+            return this;
+        }
+
+        /**
+         * 图片路径，设置后是图片域，字体、字号和value不生效
+         */
+        public Field image(String image) {
+            FieldBatch.this.image[index] = intern(image);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.forms.fields.PdfButtonFormField;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.forms.fields.PdfTextFormField;
+import com.itextpdf.io.font.FontMetrics;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.annot.PdfWidgetAnnotation;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 描述：在一个已打开的文档上逐个创建表单域
+ * <p>
+ * 保存一个文档内的字体、名称去重和扁平化用的画布，表单域可以按任意顺序逐个加入（流式读取时按到达顺序），
+ * 也可以由{@link PdfUtil}按页分组后批量加入。
+ */
+class FieldStamper {
+
+    /**
+     * 文字与表单域边框的水平距离
+     */
+    static final float PADDING = 2;
+
+    private final PdfDocument pdfDocument;
+    /**
+     * 扁平化时为null，不创建表单
+     */
+    private final PdfAcroForm pdfAcroForm;
+    //font：同一文档中相同字体只创建一次PdfFont，字体文件由PdfFontRegistry全局缓存
+    private final DocumentFonts fonts;
+    private final NameAllocator names;
+    private final AppearanceCache appearances;
+    private final DocumentImages images;
+    private final StampTrace trace;
+    /**
+     * 扁平化时每页一个画布
+     */
+    private final Map<PdfPage, PdfCanvas> canvases = new HashMap<>();
+
+    FieldStamper(PdfDocument pdfDocument, StampOptions options, NameAllocator names, StampTrace trace) {
+        this.pdfDocument = pdfDocument;
+        this.names = names;
+        this.trace = trace;
+        this.pdfAcroForm = options.isFlatten() ? null : PdfAcroForm.getAcroForm(pdfDocument, true);
+        this.fonts = new DocumentFonts(options, trace);
+        this.appearances = new AppearanceCache(pdfDocument);
+        this.images = new DocumentImages(pdfDocument);
+    }
+
+    /**
+     * 表单域名称去重，必须按原始顺序调用
+     */
+    String allocateName(String name) {
+        return names.allocate(name);
+    }
+
+    /**
+     * 取页面，页码超出范围时报错
+     */
+    PdfPage getPage(int page) {
+        int numberOfPages = pdfDocument.getNumberOfPages();
+        if (page < 1 || page > numberOfPages) {
+            throw new IllegalArgumentException("page " + page + " out of range, document has " + numberOfPages + " pages");
+        }
+        long start = System.nanoTime();
+        PdfPage pdfPage = pdfDocument.getPage(page);
+        trace.pageNanos += System.nanoTime() - start;
+        return pdfPage;
+    }
+
+    /**
+     * 创建一个表单域
+     *
+     * @param pdfPage      所在页
+     * @param rectangle    位置
+     * @param fontName     PDFModel中的font
+     * @param fontSize     字号，autoFontSize时为最大字号，0表示不限
+     * @param autoFontSize 是否缩小字号以放下全部内容
+     * @param multiline    是否多行
+     * @param name         已去重的名称
+     * @param value        值
+     * @throws IOException
+     */
+    void stamp(PdfPage pdfPage, Rectangle rectangle, String fontName, int fontSize, boolean autoFontSize,
+               boolean multiline, String name, String value) throws IOException {
+        long start = System.nanoTime();
+        long fontNanos = trace.fontNanos;
+        try {
+            stamp(pdfPage, rectangle, fonts.get(fontName), fontSize, autoFontSize, multiline, name, value);
+        } finally {
+            // 字体单独计时
+            trace.fieldNanos += System.nanoTime() - start - (trace.fontNanos - fontNanos);
+            trace.fields++;
+        }
+    }
+
+    private void stamp(PdfPage pdfPage, Rectangle rectangle, PdfFont font, int fontSize, boolean autoFontSize,
+                       boolean multiline, String name, String value) {
+        float size = fontSize;
+        if (autoFontSize) {
+            size = multiline ? fitMultilineFontSize(font, fontSize, rectangle, value) : fitFontSize(font, fontSize, rectangle, value);
+        }
+        if (pdfAcroForm == null) {
+            PdfCanvas canvas = getCanvas(pdfPage);
+            if (multiline) {
+                showLines(canvas, rectangle, font, size, value);
+            } else {
+                showText(canvas, rectangle, font, size, value);
+            }
+            return;
+        }
+        // 直接写表单域字典，外观取自缓存；PdfTextFormField的setXxx每调一次都会重新生成一遍外观
+        AppearanceCache.Appearance appearance = appearances.get(font, fonts.getId(font), size, rectangle.getWidth(), rectangle.getHeight(), multiline, value);
+        PdfWidgetAnnotation widget = new PdfWidgetAnnotation(rectangle);
+        widget.setNormalAppearance(appearance.xObject.getPdfObject());
+        widget.setBorderStyle(new PdfDictionary());
+        widget.getBorderStyle().put(PdfName.W, new PdfNumber(0));
+        PdfDictionary dictionary = widget.makeIndirect(pdfDocument).getPdfObject();
+        dictionary.put(PdfName.FT, PdfName.Tx);
+        dictionary.put(PdfName.T, new PdfString(name, PdfEncodings.UNICODE_BIG));
+        if (value != null) {
+            dictionary.put(PdfName.V, new PdfString(value, PdfEncodings.UNICODE_BIG));
+        }
+        dictionary.put(PdfName.Ff, new PdfNumber(PdfFormField.FF_READ_ONLY | (multiline ? PdfTextFormField.FF_MULTILINE : 0)));
+        dictionary.put(PdfName.DA, new PdfString("/" + appearance.fontName.getValue() + " " + formatSize(size) + " Tf 0 0 0 rg"));
+
+        /** 将表单域加入pdf的指定页中 */
+        pdfAcroForm.addField(PdfFormField.makeFormField(dictionary, pdfDocument), pdfPage);
+    }
+
+    /**
+     * 创建一个图片域（印章、签名），图片按比例缩放后居中放在矩形中
+     *
+     * @param pdfPage   所在页
+     * @param rectangle 位置
+     * @param name      已去重的名称
+     * @param image     PDFModel中的image
+     * @throws IOException
+     */
+    void stampImage(PdfPage pdfPage, Rectangle rectangle, String name, String image) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (pdfAcroForm == null) {
+                PdfImageXObject xObject = images.get(image);
+                getCanvas(pdfPage).addXObject(xObject, DocumentImages.fit(xObject, rectangle));
+                return;
+            }
+            // 只读的按钮域，外观引用文档中唯一的图片XObject
+            PdfWidgetAnnotation widget = new PdfWidgetAnnotation(rectangle);
+            widget.setNormalAppearance(images.getAppearance(image, rectangle.getWidth(), rectangle.getHeight()).getPdfObject());
+            PdfDictionary dictionary = widget.makeIndirect(pdfDocument).getPdfObject();
+            dictionary.put(PdfName.FT, PdfName.Btn);
+            dictionary.put(PdfName.T, new PdfString(name, PdfEncodings.UNICODE_BIG));
+            dictionary.put(PdfName.Ff, new PdfNumber(PdfButtonFormField.FF_PUSH_BUTTON | PdfFormField.FF_READ_ONLY));
+            pdfAcroForm.addField(PdfFormField.makeFormField(dictionary, pdfDocument), pdfPage);
+        } finally {
+            trace.fieldNanos += System.nanoTime() - start;
+            trace.fields++;
+        }
+    }
+
+    private PdfCanvas getCanvas(PdfPage pdfPage) {
+        PdfCanvas canvas = canvases.get(pdfPage);
+        if (canvas == null) {
+            canvas = new PdfCanvas(pdfPage, true);
+            canvases.put(pdfPage, canvas);
+        }
+        return canvas;
+    }
+
+    /**
+     * 一页处理完后释放该页的画布
+     */
+    void finishPage(PdfPage pdfPage) {
+        canvases.remove(pdfPage);
+    }
+
+    /**
+     * 能放进矩形的最大字号：宽度按字宽表计算，高度按字体的上下伸部计算，保留两位小数（向下取整）
+     *
+     * @param max 最大字号，0表示不限
+     */
+    static float fitFontSize(PdfFont font, float max, Rectangle rectangle, String value) {
+        FontMetrics metrics = font.getFontProgram().getFontMetrics();
+        float lineHeight = metrics.getTypoAscender() - metrics.getTypoDescender();
+        float size = lineHeight > 0 ? rectangle.getHeight() * FontProgram.UNITS_NORMALIZATION / lineHeight : rectangle.getHeight();
+        if (value != null && !value.isEmpty()) {
+            int width = GlyphWidths.of(font.getFontProgram()).getWidth(value);
+            if (width > 0) {
+                size = Math.min(size, (rectangle.getWidth() - 2 * PADDING) * FontProgram.UNITS_NORMALIZATION / width);
+            }
+        }
+        if (max > 0) {
+            size = Math.min(size, max);
+        }
+        return Math.max((float) Math.floor(size * 100) / 100, 0.01f);
+    }
+
+    /**
+     * 多行时能放进矩形的最大字号：按字号二分查找，换行后的总行高不超过矩形的高度，保留两位小数（向下取整）
+     *
+     * @param max 最大字号，0表示不限
+     */
+    static float fitMultilineFontSize(PdfFont font, float max, Rectangle rectangle, String value) {
+        // 只排一行时的字号是上限
+        float upper = (rectangle.getHeight() - 2 * PADDING) / lineHeight(font, 1);
+        if (max > 0) {
+            upper = Math.min(upper, max);
+        }
+        int low = 1;
+        int high = Math.max((int) Math.floor(upper * 100), low);
+        if (value == null || value.isEmpty()) {
+            return high / 100f;
+        }
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (fits(font, middle / 100f, rectangle, value)) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low / 100f;
+    }
+
+    private static boolean fits(PdfFont font, float fontSize, Rectangle rectangle, String value) {
+        return breakLines(font, fontSize, rectangle, value).size() * lineHeight(font, fontSize) <= rectangle.getHeight() - 2 * PADDING;
+    }
+
+    private static List<String> breakLines(PdfFont font, float fontSize, Rectangle rectangle, String value) {
+        float maxWidth = (rectangle.getWidth() - 2 * PADDING) * FontProgram.UNITS_NORMALIZATION / fontSize;
+        return LineBreaker.breakLines(GlyphWidths.of(font.getFontProgram()), value, maxWidth);
+    }
+
+    private static float lineHeight(PdfFont font, float fontSize) {
+        FontMetrics metrics = font.getFontProgram().getFontMetrics();
+        float lineHeight = (metrics.getTypoAscender() - metrics.getTypoDescender()) * fontSize / FontProgram.UNITS_NORMALIZATION;
+        return lineHeight > 0 ? lineHeight : fontSize;
+    }
+
+    private static String formatSize(float size) {
+        return size == (int) size ? String.valueOf((int) size) : String.valueOf(size);
+    }
+
+    /**
+     * 画单行文本，扁平化和表单域外观共用：左右留{@link #PADDING}的边距，垂直居中，超出矩形的部分裁掉
+     */
+    static void showText(PdfCanvas canvas, Rectangle rectangle, PdfFont font, float fontSize, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        FontMetrics metrics = font.getFontProgram().getFontMetrics();
+        float ascent = metrics.getTypoAscender() * fontSize / FontProgram.UNITS_NORMALIZATION;
+        float descent = metrics.getTypoDescender() * fontSize / FontProgram.UNITS_NORMALIZATION;
+        float baseline = rectangle.getY() + (rectangle.getHeight() - ascent + descent) / 2 - descent;
+
+        canvas.saveState()
+                .rectangle(rectangle).clip().newPath()
+                .beginText()
+                .setFontAndSize(font, fontSize)
+                .setFillColor(ColorConstants.BLACK)
+                .moveText(rectangle.getX() + PADDING, baseline)
+                .showText(value)
+                .endText()
+                .restoreState();
+    }
+
+    /**
+     * 画多行文本：按宽度换行，从顶部开始排，四周留{@link #PADDING}的边距，放不下的行裁掉
+     */
+    static void showLines(PdfCanvas canvas, Rectangle rectangle, PdfFont font, float fontSize, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        List<String> lines = visibleLines(font, fontSize, rectangle, value);
+        FontMetrics metrics = font.getFontProgram().getFontMetrics();
+        float ascent = metrics.getTypoAscender() * fontSize / FontProgram.UNITS_NORMALIZATION;
+        float leading = lineHeight(font, fontSize);
+
+        canvas.saveState()
+                .rectangle(rectangle).clip().newPath()
+                .beginText()
+                .setFontAndSize(font, fontSize)
+                .setFillColor(ColorConstants.BLACK)
+                .setLeading(leading)
+                .moveText(rectangle.getX() + PADDING, rectangle.getTop() - PADDING - ascent);
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                canvas.newlineText();
+            }
+            if (!lines.get(i).isEmpty()) {
+                canvas.showText(lines.get(i));
+            }
+        }
+        canvas.endText().restoreState();
+    }
+
+    /**
+     * {@link #showLines}实际画出的行：按宽度换行，去掉已经在矩形外的行
+     */
+    static List<String> visibleLines(PdfFont font, float fontSize, Rectangle rectangle, String value) {
+        List<String> lines = breakLines(font, fontSize, rectangle, value);
+        float leading = lineHeight(font, fontSize);
+        int visible = 0;
+        while (visible < lines.size() && visible * leading <= rectangle.getHeight()) {
+            visible++;
+        }
+        return lines.subList(0, visible);
+    }
+}
@@ -0,0 +1,227 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.TrueTypeFont;
+import com.itextpdf.io.util.StreamUtil;
+import com.ssl.tools.ClassUtils;
+import com.ssl.tools.ResourceUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 描述：字体目录
+ * <p>
+ * 第一次使用时扫描classpath下所有的font文件夹（文件系统中的目录和jar包里的font/），建立文件名到字体文件的索引，
+ * jar包里的文件夹按资源URL打开，Spring Boot可执行jar中的BOOT-INF/classes/font/和BOOT-INF/lib/*.jar里的font/也能找到；
+ * 只列文件名，不读取字体内容，字体再多启动也很快。文件名先按原样查找，找不到再忽略大小写查找；
+ * 同名字体以classpath中靠前的为准。
+ * <p>
+ * 目录中的字体按路径交给itext解析，itext会把文件映射到内存（mmap），不占用堆；jar包里的字体只能读成字节数组。
+ */
+class FontCatalog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FontCatalog.class);
+
+    private static final String FONT_FOLDER = "font";
+
+    private static volatile Map<String, Location> index;
+
+    /**
+     * 按PDFModel中的font查找字体文件
+     *
+     * @return 找不到时返回null
+     */
+    static Location find(String fontName) {
+        if (StringUtils.isBlank(fontName)) {
+            return null;
+        }
+        Map<String, Location> locations = getIndex();
+        Location location = locations.get(fontName);
+        return location != null ? location : locations.get(fontName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 重新扫描，下次使用时生效
+     */
+    static void clear() {
+        index = null;
+    }
+
+    private static Map<String, Location> getIndex() {
+        Map<String, Location> locations = index;
+        if (locations == null) {
+            synchronized (FontCatalog.class) {
+                locations = index;
+                if (locations == null) {
+                    locations = scan();
+                    index = locations;
+                }
+            }
+        }
+        return locations;
+    }
+
+    private static Map<String, Location> scan() {
+        Map<String, Location> locations = new HashMap<>();
+        Enumeration<URL> urls;
+        try {
+            urls = ClassUtils.getDefaultClassLoader().getResources(FONT_FOLDER);
+        } catch (IOException e) {
+            // 扫描失败时当作没有字体，使用itext自带的宋体
+            LOGGER.warn("cannot list font folders on the classpath", e);
+            return Collections.emptyMap();
+        }
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            try {
+                if (ResourceUtils.isFileURL(url)) {
+                    scanDirectory(ResourceUtils.getFile(url), locations);
+                } else if (ResourceUtils.isJarURL(url)) {
+                    scanJar(url, locations);
+                }
+            } catch (IOException e) {
+                // 跳过这个文件夹，其他文件夹里的字体照常使用
+                LOGGER.warn("cannot scan font folder {}", url, e);
+            }
+        }
+        return Collections.unmodifiableMap(locations);
+    }
+
+    private static void scanDirectory(File directory, Map<String, Location> locations) {
+        File[] files = directory.listFiles((dir, name) -> isFont(name));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isFile()) {
+                register(file.getName(), new Location(file.getName(), file, null, file.length()), locations);
+            }
+        }
+    }
+
+    /**
+     * 只读jar包的目录，不解压。
+     * jar包和文件夹在jar包里的路径都从资源URL的连接中取（最后一个!/之后的部分），
+     * 嵌套的jar包由类加载器注册的URL处理器打开，例如Spring Boot可执行jar中的BOOT-INF/classes!/font
+     */
+    private static void scanJar(URL url, Map<String, Location> locations) throws IOException {
+        URLConnection connection = url.openConnection();
+        ResourceUtils.useCachesIfNecessary(connection);
+        if (!(connection instanceof JarURLConnection)) {
+            LOGGER.warn("cannot scan font folder {}: not a jar connection", url);
+            return;
+        }
+        JarURLConnection jarConnection = (JarURLConnection) connection;
+        JarFile jarFile = jarConnection.getJarFile();
+        String folder = jarConnection.getEntryName() == null ? "" : jarConnection.getEntryName();
+        String prefix = folder.isEmpty() || folder.endsWith("/") ? folder : folder + "/";
+        // 字体URL相对于文件夹的URL，文件夹的URL可能以/结尾
+        String base = url.getPath().endsWith("/") ? "" : FONT_FOLDER + "/";
+        try {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !entry.getName().startsWith(prefix)) {
+                    continue;
+                }
+                String name = entry.getName().substring(prefix.length());
+                if (name.contains("/") || !isFont(name)) {
+                    continue;
+                }
+                register(name, new Location(name, null, new URL(url, base + name), entry.getSize()), locations);
+            }
+        } finally {
+            // 使用缓存时jar包和类加载器等共用，不能关闭
+            if (!jarConnection.getUseCaches()) {
+                jarFile.close();
+            }
+        }
+    }
+
+    private static void register(String name, Location location, Map<String, Location> locations) {
+        locations.putIfAbsent(name, location);
+        locations.putIfAbsent(name.toLowerCase(Locale.ROOT), location);
+    }
+
+    private static boolean isFont(String name) {
+        String lowerCase = name.toLowerCase(Locale.ROOT);
+        return lowerCase.endsWith(".ttf") || lowerCase.endsWith(".otf") || lowerCase.endsWith(".ttc");
+    }
+
+    /**
+     * 一个字体文件
+     */
+    static class Location {
+        /**
+         * 文件名，作为字体缓存的key
+         */
+        final String name;
+        /**
+         * 目录中的字体文件，在jar包里时为null
+         */
+        private final File file;
+        private final URL url;
+        /**
+         * 文件大小，未知时为-1
+         */
+        final long size;
+
+        private Location(String name, File file, URL url, long size) {
+            this.name = name;
+            this.file = file;
+            this.url = url;
+            this.size = size;
+        }
+
+        /**
+         * 解析字体，ttc取第一个字体
+         *
+         * @throws IOException
+         */
+        FontProgram load() throws IOException {
+            boolean collection = name.toLowerCase(Locale.ROOT).endsWith(".ttc");
+            FontProgram program;
+            if (file != null) {
+                program = collection ? FontProgramFactory.createFont(file.getPath(), 0, false)
+                        : FontProgramFactory.createFont(file.getPath(), false);
+            } else {
+                URLConnection connection = url.openConnection();
+                ResourceUtils.useCachesIfNecessary(connection);
+                byte[] bytes;
+                try (InputStream in = connection.getInputStream()) {
+                    bytes = StreamUtil.inputStreamToArray(in);
+                }
+                program = collection ? FontProgramFactory.createFont(bytes, 0, false)
+                        : FontProgramFactory.createFont(bytes, false);
+            }
+            if (file != null && program instanceof TrueTypeFont) {
+                // 映射的文件源不能多线程读，itext在第一次做子集时才给它加锁，这一步本身没有同步，
+                // 先在这里读一次，之后各个文档并发做子集时用的都是加过锁的源
+                TrueTypeFont trueTypeFont = (TrueTypeFont) program;
+                if (trueTypeFont.isCff()) {
+                    // cff字体嵌入时读出整个cff表再做子集，读出的内容itext会保存在字体里
+                    trueTypeFont.getFontStreamBytes();
+                } else {
+                    trueTypeFont.getSubset(Collections.singleton(0), true);
+                }
+            }
+            return program;
+        }
+    }
+}
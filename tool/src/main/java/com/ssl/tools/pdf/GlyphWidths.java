@@ -0,0 +1,82 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.otf.Glyph;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 描述：字体的字宽表
+ * <p>
+ * BMP内的字符（含全部常用汉字）的字宽在第一次使用时一次性从字体中取出，放在以码点为下标的数组里，
+ * 之后计算文字宽度只是数组读取，不再查找Glyph对象。每个字体只建一次表，随字体一起被回收。
+ * 宽度单位同字体，1000为一个字号。
+ */
+class GlyphWidths {
+
+    private static final Map<FontProgram, GlyphWidths> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final int BMP = 0x10000;
+
+    /**
+     * BMP以外的字符直接查字体；弱引用，否则WeakHashMap的值引用着键，字体永远不会被回收
+     */
+    private final WeakReference<FontProgram> fontProgram;
+    /**
+     * 码点 -> 字宽
+     */
+    private final int[] widths;
+    /**
+     * 字体中没有的字符显示为.notdef，按它的宽度计算
+     */
+    private final int missingWidth;
+
+    private GlyphWidths(FontProgram fontProgram) {
+        this.fontProgram = new WeakReference<>(fontProgram);
+        Glyph notdef = fontProgram.getGlyphByCode(0);
+        this.missingWidth = notdef == null ? 0 : notdef.getWidth();
+        this.widths = new int[BMP];
+        for (int c = 0; c < BMP; c++) {
+            Glyph glyph = fontProgram.getGlyph(c);
+            widths[c] = glyph == null ? missingWidth : glyph.getWidth();
+        }
+    }
+
+    static GlyphWidths of(FontProgram fontProgram) {
+        GlyphWidths glyphWidths = CACHE.get(fontProgram);
+        if (glyphWidths == null) {
+            // 并发时可能重复建表，结果相同，不加锁
+            glyphWidths = new GlyphWidths(fontProgram);
+            CACHE.put(fontProgram, glyphWidths);
+        }
+        return glyphWidths;
+    }
+
+    /**
+     * 单个字符的宽度
+     */
+    int getWidth(int codePoint) {
+        if (codePoint < BMP) {
+            return widths[codePoint];
+        }
+        FontProgram program = fontProgram.get();
+        Glyph glyph = program == null ? null : program.getGlyph(codePoint);
+        return glyph == null ? missingWidth : glyph.getWidth();
+    }
+
+    /**
+     * 一段文字的宽度，字体单位
+     */
+    int getWidth(String text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            width += getWidth(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return width;
+    }
+}
@@ -0,0 +1,150 @@
+package com.ssl.tools.pdf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 描述：多行文本换行
+ * <p>
+ * 按字宽表贪心断行，一遍扫描，字宽只是数组读取，换行时只重算移到下一行的那一小段：
+ * 汉字、假名、谚文及全角标点前后都可以断开；西文按空格断开，单词比一行还长时按字符断开；
+ * 换行符（\n、\r\n或单独的\r）强制换行。按中文排版的禁则，句号、逗号、右括号等不放在行首，左括号、左引号不放在行尾。
+ * 行尾的空格不计宽度，换行后行首的空格去掉。
+ */
+class LineBreaker {
+
+    /**
+     * 不能出现在行首的字符
+     */
+    private static final String NO_BREAK_BEFORE = "!%),.:;?]}¢°·’”‰′″℃、。〃〉》」』】〕〗〞︶︺︾﹀﹄﹚﹜﹞！＂％＇），．：；？］｝～｠｣､ー々〻ぁぃぅぇぉっゃゅょゎァィゥェォッャュョヮヵヶ";
+    /**
+     * 不能出现在行尾的字符
+     */
+    private static final String NO_BREAK_AFTER = "$(£¥‘“〈《「『【〔〖〝﹙﹛﹝＄（［｛￡￥｟｢";
+
+    private LineBreaker() {
+    }
+
+    /**
+     * 断行
+     *
+     * @param widths   字宽表
+     * @param text     文本，不能为null
+     * @param maxWidth 一行的最大宽度，字体单位（1000为一个字号）
+     * @return 每行的文本，至少一行
+     */
+    static List<String> breakLines(GlyphWidths widths, String text, float maxWidth) {
+        List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+        float lineWidth = 0;
+        // 本行中最后一个可以断开的位置（该位置之前断开），没有时等于lineStart
+        int lastBreak = 0;
+        int previous = -1;
+        for (int i = 0; i < text.length(); ) {
+            int c = text.codePointAt(i);
+            int next = i + Character.charCount(c);
+            if (c == '\n' || c == '\r') {
+                if (c == '\r' && next < text.length() && text.charAt(next) == '\n') {
+                    next++;
+                }
+                lines.add(trimEnd(text, lineStart, i));
+                lineStart = lastBreak = next;
+                lineWidth = 0;
+                previous = -1;
+                i = next;
+                continue;
+            }
+            if (i > lineStart && canBreak(previous, c)) {
+                lastBreak = i;
+            }
+            int width = widths.getWidth(c);
+            // 空格不触发换行，放在行尾，输出时去掉
+            if (lineWidth + width > maxWidth && i > lineStart && !Character.isWhitespace(c)) {
+                int end = lastBreak > lineStart ? lastBreak : i;
+                lines.add(trimEnd(text, lineStart, end));
+                lineStart = lastBreak = skipSpaces(text, end, i);
+                lineWidth = width(widths, text, lineStart, i);
+                // 移到下一行的一段中间没有可断开的位置，加上c仍然放不下时按字符断开
+                while (lineWidth + width > maxWidth && lineStart < i) {
+                    end = fit(widths, text, lineStart, i, maxWidth);
+                    lines.add(text.substring(lineStart, end));
+                    lineStart = lastBreak = end;
+                    lineWidth = width(widths, text, lineStart, i);
+                }
+            }
+            lineWidth += width;
+            previous = c;
+            i = next;
+        }
+        lines.add(trimEnd(text, lineStart, text.length()));
+        return lines;
+    }
+
+    /**
+     * 能否在previous和c之间断开
+     */
+    private static boolean canBreak(int previous, int c) {
+        if (Character.isWhitespace(previous)) {
+            return !Character.isWhitespace(c);
+        }
+        if (NO_BREAK_BEFORE.indexOf(c) >= 0 || NO_BREAK_AFTER.indexOf(previous) >= 0) {
+            return false;
+        }
+        return isCjk(previous) || isCjk(c);
+    }
+
+    private static boolean isCjk(int c) {
+        if (c < 0x2E80) {
+            return false;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        if (script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL) {
+            return true;
+        }
+        Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+        return block == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION
+                || block == Character.UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS;
+    }
+
+    private static int skipSpaces(String text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * 从start开始一行能放下的结束位置，至少放一个字符
+     */
+    private static int fit(GlyphWidths widths, String text, int start, int end, float maxWidth) {
+        float width = 0;
+        int i = start;
+        while (i < end) {
+            int c = text.codePointAt(i);
+            width += widths.getWidth(c);
+            if (width > maxWidth && i > start) {
+                break;
+            }
+            i += Character.charCount(c);
+        }
+        return i;
+    }
+
+    private static float width(GlyphWidths widths, String text, int start, int end) {
+        float width = 0;
+        for (int i = start; i < end; ) {
+            int c = text.codePointAt(i);
+            width += widths.getWidth(c);
+            i += Character.charCount(c);
+        }
+        return width;
+    }
+
+    private static String trimEnd(String text, int start, int end) {
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(start, end);
+    }
+}
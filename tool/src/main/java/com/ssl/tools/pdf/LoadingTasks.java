@@ -0,0 +1,43 @@
+package com.ssl.tools.pdf;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 描述：注册表中正在加载的字体、图片
+ * <p>
+ * 加载在注册表的锁外进行，同一个key并发请求时只有第一个线程执行加载，其他线程通过{@link #get(FutureTask)}等待它的结果。
+ */
+class LoadingTasks {
+
+    private LoadingTasks() {
+    }
+
+    /**
+     * 等待加载完成，加载时抛出的异常原样抛出
+     *
+     * @throws IOException
+     */
+    static <T> T get(FutureTask<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for loading");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ssl.tools.pdf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 描述：表单域名称去重
+ * <p>
+ * 第一次出现的名称保持不变，之后依次为name#0、name#1...，与原来createText的规则一致。
+ * 所有发出去的名称（包括生成的带#的名称）都记录在同一个表里，调用方自己传入的name#0也不会和生成的名称冲突。
+ * 相同的输入顺序总是得到相同的名称。每个文档一个实例，名称在文档内唯一；
+ * 合并输出时各部分共用一个实例，名称在合并后的文档中唯一。{@link PdfBatchStamper}的各个任务输出不同的文件，各自去重。
+ * 非线程安全。
+ */
+class NameAllocator {
+    /**
+     * 已使用的名称 -> 下一个后缀
+     */
+    private final Map<String, Counter> used;
+    private final StringBuilder builder = new StringBuilder();
+    /**
+     * 下一个放进表里的计数器，名称已存在时不会被用掉，不必每次新建
+     */
+    private Counter spare = new Counter();
+
+    NameAllocator() {
+        this(16);
+    }
+
+    /**
+     * @param expected 预计的名称数量，用来预设表的大小，避免扩容
+     */
+    NameAllocator(int expected) {
+        used = new HashMap<>(Math.max(16, (int) (expected / 0.75f) + 1));
+    }
+
+    /**
+     * 每个候选名称只查一次表：不存在时直接放入
+     */
+    String allocate(String name) {
+        Counter counter = used.putIfAbsent(name, spare);
+        if (counter == null) {
+            spare = new Counter();
+            return name;
+        }
+        while (true) {
+            builder.setLength(0);
+            String candidate = builder.append(name).append('#').append(counter.next++).toString();
+            if (used.putIfAbsent(candidate, spare) == null) {
+                spare = new Counter();
+                return candidate;
+            }
+        }
+    }
+
+    private static class Counter {
+        private int next;
+    }
+}
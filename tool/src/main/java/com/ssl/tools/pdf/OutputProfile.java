@@ -0,0 +1,43 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.WriterProperties;
+
+/**
+ * 描述：输出文件的压缩方式
+ * <p>
+ * 只影响新写出的对象：在模板上盖章时，模板中未修改的流原样复制，不会重新压缩；
+ * COMPACT的对象流和xref流则作用于整个输出文件（追加模式下沿用原文件的xref格式）。
+ */
+public enum OutputProfile {
+    /**
+     * itext默认：默认压缩级别，传统xref表
+     */
+    DEFAULT,
+    /**
+     * 最快压缩，吞吐优先
+     */
+    FAST,
+    /**
+     * 最高压缩级别，字典等非流对象打包进压缩的对象流，xref也写成流；
+     * 合并、拆分等复制页面的场景下，内容相同的对象（字体、图片等）只写一份
+     */
+    COMPACT;
+
+    WriterProperties createWriterProperties() {
+        WriterProperties properties = new WriterProperties();
+        switch (this) {
+            case FAST:
+                properties.setCompressionLevel(CompressionConstants.BEST_SPEED);
+                break;
+            case COMPACT:
+                properties.setCompressionLevel(CompressionConstants.BEST_COMPRESSION)
+                        .setFullCompressionMode(true)
+                        .useSmartMode();
+                break;
+            default:
+                break;
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,163 @@
+package com.ssl.tools.pdf;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 描述：异步盖章
+ * <p>
+ * 提交后立即返回CompletableFuture，调用线程不等待。执行器可以自己指定，
+ * 例如JDK21上传入 {@code Executors.newVirtualThreadPerTaskExecutor()}，每个任务一个虚拟线程；
+ * 不指定时使用内部的固定线程池，线程数为cpu核数。
+ * <p>
+ * 盖章失败时future正常完成，异常记录在{@link StampResult}中，与{@link PdfBatchStamper}一致；
+ * 取消（cancel）或超时时future以CancellationException/TimeoutException完成，
+ * 执行中的任务被中断，处理完当前页后停止，写了一半的文件会被删除。
+ */
+public class PdfAsyncStamper implements Closeable {
+
+    /**
+     * 超时计时，所有实例共用一个守护线程
+     */
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "pdf-stamp-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Executor executor;
+    /**
+     * 内部创建的线程池，close时关闭；外部传入的执行器由调用方管理
+     */
+    private final ExecutorService ownedExecutor;
+
+    public PdfAsyncStamper() {
+        this.ownedExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new PdfBatchStamper.StampThreadFactory());
+        this.executor = ownedExecutor;
+    }
+
+    /**
+     * @param executor 执行盖章任务的执行器
+     */
+    public PdfAsyncStamper(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null");
+        }
+        this.executor = executor;
+        this.ownedExecutor = null;
+    }
+
+    /**
+     * 异步执行一个任务
+     *
+     * @param job 任务
+     * @return 任务结果，cancel(true)或cancel(false)都会中断执行中的任务
+     */
+    public CompletableFuture<StampResult> stamp(StampJob job) {
+        return submit(job).future;
+    }
+
+    /**
+     * 异步执行一个任务，超过指定时间未完成时取消
+     *
+     * @param job     任务
+     * @param timeout 超时时间，从提交时开始计算，包括排队时间
+     * @param unit    时间单位
+     * @return 任务结果，超时时以TimeoutException完成
+     */
+    public CompletableFuture<StampResult> stamp(StampJob job, long timeout, TimeUnit unit) {
+        StampTask task = submit(job);
+        ScheduledFuture<?> timer = TIMER.schedule(() -> {
+            if (task.future.completeExceptionally(new TimeoutException("stamping " + job.getSavePath() + " timed out"))) {
+                task.interrupt();
+            }
+        }, timeout, unit);
+        task.future.whenComplete((result, error) -> timer.cancel(false));
+        return task.future;
+    }
+
+    private StampTask submit(StampJob job) {
+        StampTask task = new StampTask(job);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.future.completeExceptionally(e);
+        }
+        return task;
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private static class StampTask implements Runnable {
+        private final StampJob job;
+        private final StampFuture future;
+        /**
+         * 正在执行任务的线程，未开始或已结束时为null
+         */
+        private Thread runner;
+
+        private StampTask(StampJob job) {
+            this.job = job;
+            this.future = new StampFuture(this);
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                // 排队期间已被取消或超时
+                if (future.isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                future.complete(PdfBatchStamper.run(job));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // 清除本任务留下的中断标记，线程池的线程还要继续使用
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private synchronized void interrupt() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+
+    private static class StampFuture extends CompletableFuture<StampResult> {
+        private final StampTask task;
+
+        private StampFuture(StampTask task) {
+            this.task = task;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                task.interrupt();
+            }
+            return cancelled;
+        }
+    }
+}
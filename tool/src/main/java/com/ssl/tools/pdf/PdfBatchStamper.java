@@ -0,0 +1,126 @@
+package com.ssl.tools.pdf;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 描述：批量盖章
+ * <p>
+ * 多个任务在固定大小的线程池中并行执行，默认线程数为cpu核数。
+ * 同时在途（执行中+排队）的任务数有上限，超过时提交线程阻塞等待，避免一次性把大批任务全部压进内存。
+ * 单个任务失败只记录在自己的{@link StampResult}中，不影响其他任务。
+ */
+public class PdfBatchStamper implements Closeable {
+
+    private final ExecutorService executor;
+    /**
+     * 控制在途任务数
+     */
+    private final Semaphore permits;
+
+    public PdfBatchStamper() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public PdfBatchStamper(int threads) {
+        this(threads, threads * 2);
+    }
+
+    /**
+     * @param threads       工作线程数
+     * @param queueCapacity 排队任务数上限
+     */
+    public PdfBatchStamper(int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("threads must be positive and queueCapacity must not be negative");
+        }
+        this.permits = new Semaphore(threads + queueCapacity);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new StampThreadFactory());
+    }
+
+    /**
+     * 执行一批任务，全部完成后返回
+     *
+     * @param jobs 任务，可以是按需生成的Iterable
+     * @return 汇总结果
+     * @throws InterruptedException 等待期间被中断，未开始的任务不再提交
+     */
+    public BatchReport stamp(Iterable<StampJob> jobs) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        List<Future<StampResult>> futures = new ArrayList<>();
+        for (StampJob job : jobs) {
+            permits.acquire();
+            try {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return run(job);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        List<StampResult> results = new ArrayList<>(futures.size());
+        for (Future<StampResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                // run已经捕获了Exception，这里只会是Error
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return new BatchReport(results, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 执行单个任务，异常记录在结果中
+     */
+    static StampResult run(StampJob job) {
+        long start = System.currentTimeMillis();
+        try {
+            PdfUtil.createText(job.getPdf(), job.getSavePath(), job.getFields());
+            return new StampResult(job, null, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            // 删除写了一半的文件
+            if (job.getSavePath() != null) {
+                new File(job.getSavePath()).delete();
+            }
+            return new StampResult(job, e, System.currentTimeMillis() - start);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    static class StampThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "pdf-stamp-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 描述：字体注册表
+ * <p>
+ * 按PDFModel中的font名称缓存解析好的FontProgram，同一个ttf在整个JVM中只解析一次，
+ * 每个pdf文档再通过{@link #createFont(String)}拿到自己的PdfFont（PdfFont属于具体文档，不能跨文档共用）。
+ * 缓存按字体文件大小计算占用，超过{@link #setMaxCacheBytes(long)}时淘汰最久未使用的字体。
+ * 字体文件通过{@link FontCatalog}按文件名查找，font文件夹可以在文件系统上，也可以打在jar包里。
+ * 解析在锁外进行，同一个字体并发请求时只解析一次，解析期间其他字体照常命中缓存。
+ */
+public class PdfFontRegistry {
+    /**
+     * 默认字体，font文件夹下找不到PDFModel指定的字体时使用
+     */
+    public static final String DEFAULT_FONT = "STKAITI.TTF";
+    /**
+     * 默认字体也没有时，使用itext font-asian自带的宋体，不嵌入
+     */
+    private static final String FALLBACK_FONT = "STSong-Light";
+    private static final String FALLBACK_ENCODING = "UniGB-UCS2-H";
+
+    private static final Map<String, FontEntry> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * 正在解析的字体，由CACHE的锁保护；解析在锁外进行，不影响其他字体的查找
+     */
+    private static final Map<String, FutureTask<FontEntry>> LOADING = new HashMap<>();
+    private static long maxCacheBytes = 64L * 1024 * 1024;
+    private static long cacheBytes;
+    private static long cacheHits;
+    private static long cacheMisses;
+
+    /**
+     * 为当前文档创建字体
+     *
+     * @param fontName PDFModel中的font，ttf文件名
+     * @return 新的PdfFont，只能在一个文档中使用
+     * @throws IOException
+     */
+    public static PdfFont createFont(String fontName) throws IOException {
+        FontEntry entry = getFontEntry(fontName);
+        return PdfFontFactory.createFont(entry.program, entry.encoding, entry.embedded);
+    }
+
+    /**
+     * 获取解析好的字体
+     *
+     * @param fontName PDFModel中的font，ttf文件名
+     * @throws IOException
+     */
+    public static FontProgram getFontProgram(String fontName) throws IOException {
+        return getFontEntry(fontName).program;
+    }
+
+    private static FontEntry getFontEntry(String fontName) throws IOException {
+        String key = resolve(fontName);
+        FutureTask<FontEntry> task;
+        boolean loader = false;
+        synchronized (CACHE) {
+            FontEntry entry = CACHE.get(key);
+            if (entry != null) {
+                cacheHits++;
+                return entry;
+            }
+            task = LOADING.get(key);
+            if (task == null) {
+                cacheMisses++;
+                task = new FutureTask<>(() -> load(key));
+                LOADING.put(key, task);
+                loader = true;
+            }
+        }
+        if (!loader) {
+            return LoadingTasks.get(task);
+        }
+        // 大字体解析（含映射文件的预读）可能要几百毫秒，不能持有CACHE的锁
+        task.run();
+        synchronized (CACHE) {
+            LOADING.remove(key);
+        }
+        FontEntry entry = LoadingTasks.get(task);
+        synchronized (CACHE) {
+            FontEntry previous = CACHE.put(key, entry);
+            cacheBytes += entry.size - (previous == null ? 0 : previous.size);
+            evict();
+        }
+        return entry;
+    }
+
+    /**
+     * 找到实际使用的字体文件名
+     */
+    static String resolve(String fontName) {
+        FontCatalog.Location location = FontCatalog.find(fontName);
+        if (location == null) {
+            location = FontCatalog.find(DEFAULT_FONT);
+        }
+        return location != null ? location.name : FALLBACK_FONT;
+    }
+
+    private static FontEntry load(String key) throws IOException {
+        FontCatalog.Location location = FALLBACK_FONT.equals(key) ? null : FontCatalog.find(key);
+        if (location == null) {
+            return new FontEntry(FontProgramFactory.createFont(FALLBACK_FONT, false), FALLBACK_ENCODING, false, 0);
+        }
+        return new FontEntry(location.load(), PdfEncodings.IDENTITY_H, true, Math.max(location.size, 0));
+    }
+
+    private static void evict() {
+        Iterator<Map.Entry<String, FontEntry>> iterator = CACHE.entrySet().iterator();
+        // 至少保留刚加入的一个
+        while (cacheBytes > maxCacheBytes && CACHE.size() > 1) {
+            Map.Entry<String, FontEntry> eldest = iterator.next();
+            iterator.remove();
+            cacheBytes -= eldest.getValue().size;
+            // 按该字体缓存的外观也删掉，之后用到时重新加载、生成
+            AppearanceCache.removeFont(getFontId(eldest.getKey()));
+        }
+    }
+
+    /**
+     * 字体文件的标识：文件名加文件大小，替换同名字体文件后标识不同
+     *
+     * @param file {@link #resolve(String)}的结果
+     */
+    static String getFontId(String file) {
+        FontCatalog.Location location = FALLBACK_FONT.equals(file) ? null : FontCatalog.find(file);
+        return location == null ? file : file + ":" + location.size;
+    }
+
+    /**
+     * 设置字体缓存上限（字节），默认64M
+     */
+    public static void setMaxCacheBytes(long maxCacheBytes) {
+        synchronized (CACHE) {
+            PdfFontRegistry.maxCacheBytes = maxCacheBytes;
+            evict();
+        }
+    }
+
+    /**
+     * 字体缓存命中次数
+     */
+    public static long getCacheHits() {
+        synchronized (CACHE) {
+            return cacheHits;
+        }
+    }
+
+    /**
+     * 字体缓存未命中（读取、解析字体文件）次数
+     */
+    public static long getCacheMisses() {
+        synchronized (CACHE) {
+            return cacheMisses;
+        }
+    }
+
+    /**
+     * 清空字体缓存，按字体缓存的表单域外观一并清空，font文件夹下次使用时重新扫描
+     */
+    public static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+            cacheBytes = 0;
+        }
+        FontCatalog.clear();
+        AppearanceCache.clear();
+    }
+
+    private static class FontEntry {
+        private final FontProgram program;
+        private final String encoding;
+        private final boolean embedded;
+        private final long size;
+
+        private FontEntry(FontProgram program, String encoding, boolean embedded, long size) {
+            this.program = program;
+            this.encoding = encoding;
+            this.embedded = embedded;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.ssl.tools.ResourceUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 描述：图片注册表
+ * <p>
+ * 按PDFModel中的image缓存解码后的图片（印章、签名等），同一张图片在整个JVM中只解码一次，
+ * 每个pdf文档再通过{@link #createXObject(String)}拿到自己的图片XObject（XObject属于具体文档，不能跨文档共用）。
+ * 缓存按解码后的大小计算占用，超过{@link #setMaxCacheBytes(long)}时淘汰最久未使用的图片。
+ * 文件系统上的图片修改后（修改时间或大小变化）会重新解码。
+ * <p>
+ * image可能来自外部请求（例如{@link PdfUtil#stampJson}读入的JSON），只读取{@link #setAllowedLocations(String...)}允许的位置，
+ * 默认什么都不允许；其他位置的图片直接报错，不会打开文件或发起请求。
+ * 解码在锁外进行，同一张图片并发请求时只有一个线程解码，其他线程等待它的结果。
+ */
+public class PdfImageRegistry {
+
+    private static final Map<String, ImageEntry> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * 正在读取、解码的图片，由CACHE的锁保护
+     */
+    private static final Map<String, FutureTask<ImageEntry>> LOADING = new HashMap<>();
+    /**
+     * 允许的目录（规范路径）和classpath:、URL前缀（以/结尾）
+     */
+    private static volatile List<File> allowedDirectories = Collections.emptyList();
+    private static volatile List<String> allowedPrefixes = Collections.emptyList();
+    private static long maxCacheBytes = 32L * 1024 * 1024;
+    private static long cacheBytes;
+    private static long cacheHits;
+    private static long cacheMisses;
+
+    /**
+     * 为当前文档创建图片XObject
+     *
+     * @param image PDFModel中的image，文件路径、classpath:路径或URL
+     * @return 新的XObject，只能在一个文档中使用
+     * @throws IOException
+     */
+    public static PdfImageXObject createXObject(String image) throws IOException {
+        ImageData imageData = getImageData(image);
+        // itext生成XObject时会修改ImageData的属性，同一张图片在多个文档中并发使用时需要串行
+        synchronized (imageData) {
+            return new PdfImageXObject(imageData);
+        }
+    }
+
+    /**
+     * 获取解码后的图片
+     *
+     * @param image PDFModel中的image
+     * @throws IOException
+     * @throws IllegalArgumentException image不在允许的位置
+     */
+    public static ImageData getImageData(String image) throws IOException {
+        URL url = resolve(image);
+        File file = ResourceUtils.isFileURL(url) ? ResourceUtils.getFile(url) : null;
+        long lastModified = file == null ? 0 : file.lastModified();
+        long length = file == null ? 0 : file.length();
+        FutureTask<ImageEntry> task;
+        boolean loader = false;
+        synchronized (CACHE) {
+            ImageEntry entry = CACHE.get(image);
+            if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+                cacheHits++;
+                return entry.imageData;
+            }
+            task = LOADING.get(image);
+            if (task == null) {
+                cacheMisses++;
+                task = new FutureTask<>(() -> new ImageEntry(load(url), lastModified, length));
+                LOADING.put(image, task);
+                loader = true;
+            }
+        }
+        if (!loader) {
+            return LoadingTasks.get(task).imageData;
+        }
+        task.run();
+        synchronized (CACHE) {
+            LOADING.remove(image);
+        }
+        ImageEntry entry = LoadingTasks.get(task);
+        synchronized (CACHE) {
+            ImageEntry previous = CACHE.put(image, entry);
+            cacheBytes += entry.size - (previous == null ? 0 : previous.size);
+            evict();
+        }
+        return entry.imageData;
+    }
+
+    private static ImageData load(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        ResourceUtils.useCachesIfNecessary(connection);
+        if (connection instanceof HttpURLConnection) {
+            // 重定向可能指向不允许的地址
+            ((HttpURLConnection) connection).setInstanceFollowRedirects(false);
+        }
+        try (InputStream in = connection.getInputStream()) {
+            return ImageDataFactory.create(StreamUtil.inputStreamToArray(in));
+        }
+    }
+
+    /**
+     * 设置允许读取图片的位置，替换之前的设置，已缓存的图片也按新的设置检查
+     *
+     * @param locations 目录（文件路径或file: URL，包括子目录）、classpath:前缀（如classpath:seal/）
+     *                  或URL前缀（如https://static.example.com/seal/，只写协议如https:时允许该协议的所有地址）
+     * @throws IOException 目录路径无法解析
+     */
+    public static void setAllowedLocations(String... locations) throws IOException {
+        List<File> directories = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        for (String location : locations) {
+            if (location.startsWith(ResourceUtils.CLASSPATH_URL_PREFIX) || (ResourceUtils.isUrl(location)
+                    && !location.startsWith(ResourceUtils.FILE_URL_PREFIX))) {
+                // 只写协议时（如https:）允许该协议的所有地址
+                prefixes.add(location.endsWith("/") || location.endsWith(":") ? location : location + "/");
+            } else {
+                directories.add(ResourceUtils.getFile(location).getCanonicalFile());
+            }
+        }
+        allowedDirectories = Collections.unmodifiableList(directories);
+        allowedPrefixes = Collections.unmodifiableList(prefixes);
+    }
+
+    /**
+     * 检查并解析image，不在允许的位置时不访问文件或网络
+     */
+    private static URL resolve(String image) throws IOException {
+        if (image.startsWith(ResourceUtils.CLASSPATH_URL_PREFIX)) {
+            String path = image.substring(ResourceUtils.CLASSPATH_URL_PREFIX.length());
+            if (!hasParentSegment(path) && isAllowedPrefix(image)) {
+                return ResourceUtils.getURL(image);
+            }
+        } else if (ResourceUtils.isUrl(image)) {
+            URL url = new URL(image);
+            if (ResourceUtils.isFileURL(url)) {
+                return resolveFile(ResourceUtils.getFile(url), image);
+            }
+            try {
+                URI uri = url.toURI().normalize();
+                if (!hasParentSegment(uri.getPath()) && isAllowedPrefix(uri.toString())) {
+                    return uri.toURL();
+                }
+            } catch (URISyntaxException e) {
+                // 按不允许处理
+            }
+        } else {
+            return resolveFile(new File(image), image);
+        }
+        throw notAllowed(image);
+    }
+
+    private static URL resolveFile(File file, String image) throws IOException {
+        // 规范路径已经去掉..和符号链接
+        File canonical = file.getCanonicalFile();
+        for (File directory : allowedDirectories) {
+            if (canonical.getPath().startsWith(directory.getPath() + File.separator)) {
+                return canonical.toURI().toURL();
+            }
+        }
+        throw notAllowed(image);
+    }
+
+    private static boolean isAllowedPrefix(String location) {
+        for (String prefix : allowedPrefixes) {
+            if (location.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasParentSegment(String path) {
+        return path == null || Arrays.asList(path.split("[/\\\\]")).contains("..");
+    }
+
+    private static IllegalArgumentException notAllowed(String image) {
+        return new IllegalArgumentException("image location not allowed: " + image
+                + ", see PdfImageRegistry.setAllowedLocations");
+    }
+
+    private static void evict() {
+        Iterator<ImageEntry> iterator = CACHE.values().iterator();
+        // 至少保留刚加入的一个
+        while (cacheBytes > maxCacheBytes && CACHE.size() > 1) {
+            ImageEntry eldest = iterator.next();
+            iterator.remove();
+            cacheBytes -= eldest.size;
+        }
+    }
+
+    /**
+     * 设置图片缓存上限（字节），默认32M
+     */
+    public static void setMaxCacheBytes(long maxCacheBytes) {
+        synchronized (CACHE) {
+            PdfImageRegistry.maxCacheBytes = maxCacheBytes;
+            evict();
+        }
+    }
+
+    /**
+     * 图片缓存命中次数
+     */
+    public static long getCacheHits() {
+        synchronized (CACHE) {
+            return cacheHits;
+        }
+    }
+
+    /**
+     * 图片缓存未命中（读取、解码图片）次数
+     */
+    public static long getCacheMisses() {
+        synchronized (CACHE) {
+            return cacheMisses;
+        }
+    }
+
+    /**
+     * 清空图片缓存
+     */
+    public static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+            cacheBytes = 0;
+        }
+    }
+
+    private static class ImageEntry {
+        private final ImageData imageData;
+        /**
+         * 文件的修改时间和大小，不在文件系统上时为0
+         */
+        private final long lastModified;
+        private final long length;
+        private final long size;
+
+        private ImageEntry(ImageData imageData, long lastModified, long length) {
+            this.imageData = imageData;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.size = size(imageData) + (imageData.getImageMask() == null ? 0 : size(imageData.getImageMask()));
+        }
+
+        private static long size(ImageData imageData) {
+            return imageData.getData() == null ? 0 : imageData.getData().length;
+        }
+    }
+}
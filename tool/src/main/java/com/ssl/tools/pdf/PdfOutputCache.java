@@ -0,0 +1,373 @@
+package com.ssl.tools.pdf;
+
+import com.ssl.tools.PDFModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 描述：盖章结果缓存
+ * <p>
+ * 模板内容、表单域列表（按顺序，含所有属性）和影响输出的选项相同的请求，输出也相同，
+ * 按三者的SHA-256把结果文件保存在本地目录中，再次请求时直接用FileChannel.transferTo拷贝，不再盖章。
+ * 目录总大小超过上限时删除最久未使用的结果，删除失败（例如Windows上文件正被读取）的文件仍计入总大小，下次淘汰时重试。
+ * <p>
+ * 模板的摘要按文件路径缓存，大小、修改时间和文件标识（inode等）都不变时不重复计算。
+ * 如果模板被原地改写、大小不变且修改时间也被还原（或落在文件系统时间精度之内），会返回按旧模板生成的结果，
+ * 这种情况下需要{@link #clear()}，或者改写模板时先写新文件再改名。
+ * <p>
+ * 注意：字体和图片文件不参与key，替换font目录下的字体或者印章、签名图片后需要{@link #clear()}。
+ * 一个缓存目录只能由一个PdfOutputCache使用，启动时会删除上次遗留的临时文件。
+ */
+public class PdfOutputCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PdfOutputCache.class);
+
+    private static final String SUFFIX = ".pdf";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxBytes;
+    /**
+     * key -> 文件大小，按访问顺序
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * 已淘汰但没有删掉的结果文件：key -> 文件大小
+     */
+    private final Map<String, Long> undeleted = new LinkedHashMap<>();
+    /**
+     * 结果文件总大小，包括没有删掉的文件
+     */
+    private long totalBytes;
+    /**
+     * 模板路径 -> 摘要
+     */
+    private final Map<String, TemplateDigest> templates = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory 缓存目录，已有的结果文件会被继续使用
+     * @param maxBytes  目录中结果文件的总大小上限
+     * @throws IOException
+     */
+    public PdfOutputCache(File directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory.toPath());
+        // 上次盖章中途退出遗留的临时文件
+        File[] temps = directory.listFiles((dir, name) -> name.endsWith(TEMP_SUFFIX));
+        if (temps != null) {
+            for (File temp : temps) {
+                if (!temp.delete()) {
+                    LOGGER.warn("cannot delete stale temporary file {}", temp);
+                }
+            }
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            // 按修改时间恢复使用顺序，命中时会更新修改时间
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                entries.put(file.getName().substring(0, file.getName().length() - SUFFIX.length()), file.length());
+                totalBytes += file.length();
+            }
+        }
+        synchronized (entries) {
+            evict();
+        }
+    }
+
+    /**
+     * 同{@link PdfUtil#createText(File, String, List, StampOptions)}，相同请求直接返回缓存的结果
+     *
+     * @return 是否命中缓存
+     * @throws IOException
+     */
+    public boolean createText(File pdf, String savePath, List<PDFModel> list, StampOptions options) throws IOException {
+        try (FileChannel out = FileChannel.open(new File(savePath).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return createText(pdf, out, list, options);
+        }
+    }
+
+    /**
+     * 结果写入通道，例如直接写到socket
+     *
+     * @param out 输出通道，由调用方关闭
+     * @return 是否命中缓存
+     * @throws IOException
+     */
+    public boolean createText(File pdf, WritableByteChannel out, List<PDFModel> list, StampOptions options) throws IOException {
+        String key = key(pdf, list, options);
+        FileChannel cached = open(key);
+        boolean hit = cached != null;
+        if (!hit) {
+            cached = put(key, pdf, list, options);
+        }
+        try (FileChannel in = cached) {
+            long size = in.size();
+            for (long position = 0; position < size; ) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+        return hit;
+    }
+
+    /**
+     * 命中时打开结果文件，打开后即使被淘汰删除也能继续读完
+     */
+    private FileChannel open(String key) throws IOException {
+        synchronized (entries) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+            File file = file(key);
+            file.setLastModified(System.currentTimeMillis());
+            try {
+                return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // 文件被外部删除，按未命中处理
+                totalBytes -= entries.remove(key);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 盖章到临时文件，完成后改名为结果文件，同一个key并发时以后完成的为准；
+     * 改名失败（例如Windows上结果文件正被读取）时直接返回临时文件，本次结果不缓存
+     */
+    private FileChannel put(String key, File pdf, List<PDFModel> list, StampOptions options) throws IOException {
+        Path temp = new File(directory, key + "." + UUID.randomUUID() + TEMP_SUFFIX).toPath();
+        boolean moved = false;
+        try {
+            PdfUtil.createText(pdf, temp.toString(), list, options);
+            synchronized (entries) {
+                Path target = file(key).toPath();
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    LOGGER.warn("cannot move {} to {}, result not cached", temp, target, e);
+                    // 关闭时删除，删不掉的下次启动时清理
+                    return FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+                }
+                moved = true;
+                long size = Files.size(target);
+                // 覆盖了同名的结果文件，原来的大小不再计入
+                Long previous = entries.put(key, size);
+                Long stale = undeleted.remove(key);
+                totalBytes += size - (previous == null ? 0 : previous) - (stale == null ? 0 : stale);
+                // 先打开再淘汰，结果文件本身超过上限时也能读出
+                FileChannel channel = FileChannel.open(target, StandardOpenOption.READ);
+                evict();
+                return channel;
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!moved) {
+                Files.deleteIfExists(temp);
+            }
+            throw e;
+        }
+    }
+
+    private void evict() {
+        // 先重试上次没删掉的
+        Iterator<Map.Entry<String, Long>> retry = undeleted.entrySet().iterator();
+        while (retry.hasNext()) {
+            Map.Entry<String, Long> entry = retry.next();
+            if (delete(entry.getKey())) {
+                retry.remove();
+                totalBytes -= entry.getValue();
+            }
+        }
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    /**
+     * 删除一个已经移出entries的结果文件，删不掉时仍计入总大小
+     */
+    private void remove(String key, long size) {
+        if (delete(key)) {
+            totalBytes -= size;
+        } else {
+            LOGGER.warn("cannot delete cached result {}, retry on next eviction", file(key));
+            undeleted.put(key, size);
+        }
+    }
+
+    private boolean delete(String key) {
+        try {
+            Files.deleteIfExists(file(key).toPath());
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private File file(String key) {
+        return new File(directory, key + SUFFIX);
+    }
+
+    /**
+     * 清空缓存目录
+     */
+    public void clear() {
+        synchronized (entries) {
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                remove(entry.getKey(), entry.getValue());
+            }
+            entries.clear();
+            evict();
+        }
+        templates.clear();
+    }
+
+    /**
+     * 当前缓存的结果文件总大小
+     */
+    public long getTotalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private String key(File pdf, List<PDFModel> list, StampOptions options) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + list.size() * 64);
+        DataOutputStream data = new DataOutputStream(bytes);
+        // 只包含影响输出内容的选项
+        data.writeBoolean(options.isAppendMode());
+        data.writeBoolean(options.isFlatten());
+        data.writeBoolean(options.isFontSubset());
+        data.writeUTF(options.getOutputProfile().name());
+        data.writeInt(list.size());
+        for (PDFModel model : list) {
+            writeNullable(data, model.getPage());
+            data.writeFloat(model.getPositionX());
+            data.writeFloat(model.getPositionY());
+            data.writeFloat(model.getWidth());
+            data.writeFloat(model.getHeight());
+            writeNullable(data, model.getFont());
+            writeNullable(data, model.getFontSize());
+            data.writeBoolean(Boolean.TRUE.equals(model.getAutoFontSize()));
+            data.writeBoolean(Boolean.TRUE.equals(model.getMultiline()));
+            writeNullable(data, model.getName());
+            writeNullable(data, model.getValue());
+            writeNullable(data, model.getImage());
+        }
+        data.flush();
+        MessageDigest digest = sha256();
+        digest.update(templateDigest(pdf));
+        digest.update(bytes.toByteArray());
+        return hex(digest.digest());
+    }
+
+    private static void writeNullable(DataOutputStream data, Integer value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeInt(value);
+        }
+    }
+
+    /**
+     * 字符串按UTF-8写入，前面带长度，避免相邻字段拼接后混淆
+     */
+    private static void writeNullable(DataOutputStream data, String value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+    }
+
+    private byte[] templateDigest(File pdf) throws IOException {
+        String path = pdf.getCanonicalPath();
+        BasicFileAttributes attributes = Files.readAttributes(pdf.toPath(), BasicFileAttributes.class);
+        TemplateDigest cached = templates.get(path);
+        if (cached != null && cached.matches(attributes)) {
+            return cached.digest;
+        }
+        MessageDigest digest = sha256();
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(pdf.toPath()), digest)) {
+            byte[] buffer = new byte[64 * 1024];
+            while (in.read(buffer) != -1) {
+                // 读取即计算
+            }
+        }
+        TemplateDigest templateDigest = new TemplateDigest(attributes, digest.digest());
+        // 计算期间文件被修改时不缓存，下次重新计算
+        if (templateDigest.matches(Files.readAttributes(pdf.toPath(), BasicFileAttributes.class))) {
+            templates.put(path, templateDigest);
+        }
+        return templateDigest.digest;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    private static class TemplateDigest {
+        private final long length;
+        private final FileTime lastModified;
+        /**
+         * 文件标识（Unix上为设备号和inode），不支持时为null；先写新文件再改名替换模板时会变化
+         */
+        private final Object fileKey;
+        private final byte[] digest;
+
+        private TemplateDigest(BasicFileAttributes attributes, byte[] digest) {
+            this.length = attributes.size();
+            this.lastModified = attributes.lastModifiedTime();
+            this.fileKey = attributes.fileKey();
+            this.digest = digest;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return length == attributes.size() && lastModified.equals(attributes.lastModifiedTime())
+                    && Objects.equals(fileKey, attributes.fileKey());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ssl.tools.pdf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 描述：盖章监听器注册表
+ * <p>
+ * 没有注册监听器时只多几次System.nanoTime调用，不创建事件对象。
+ */
+public class PdfStampMetrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PdfStampMetrics.class);
+
+    private static final List<StampListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    public static void addListener(StampListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(StampListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    static boolean hasListeners() {
+        return !LISTENERS.isEmpty();
+    }
+
+    static void publish(StampEvent event) {
+        for (StampListener listener : LISTENERS) {
+            try {
+                listener.onStamp(event);
+            } catch (RuntimeException e) {
+                // 监听器出错不影响盖章结果，只记录日志
+                LOGGER.warn("stamp listener {} failed for {}", listener, event, e);
+            }
+        }
+    }
+}
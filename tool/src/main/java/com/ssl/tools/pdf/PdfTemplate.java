@@ -0,0 +1,368 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.forms.PdfPageFormCopier;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.IndependentRandomAccessSource;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.StampingProperties;
+import com.itextpdf.kernel.pdf.annot.PdfWidgetAnnotation;
+import com.ssl.tools.PDFModel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 描述：预编译的pdf模板
+ * <p>
+ * 模板文件只在{@link #compile(File)}时读入内存一次，之后不再读磁盘。
+ * 每次{@link #createText(String, List)}独占一个在模板内容上打开的只读视图，把页面复制到新文档后再创建表单域。
+ * 视图用完放回池中，下次盖章直接复用已解析的对象；同一个模板可以被多个线程共用，并发时各自使用不同的视图，互不加锁。
+ * <p>
+ * 很大的模板可以用{@link #map(File)}：文件通过FileChannel.map映射，不占堆内存。
+ * <p>
+ * 注意：输出文档只包含页面和表单域，模板的书签等文档级信息不会复制。
+ * <p>
+ * 模板中已有表单域时可以用{@link #fill(String, Map)}按名称填值，名称到表单域的索引在第一次填值时建立，之后每次填值直接复用。
+ */
+public class PdfTemplate implements Closeable {
+    /**
+     * 模板文件内容
+     */
+    private final IRandomAccessSource content;
+    /**
+     * 只读打开的模板，用于页数和表单域索引
+     */
+    private final PdfDocument source;
+    /**
+     * 表单域全名 -> 对象号，第一次填值时建立
+     */
+    private Map<String, Integer> fieldIndex;
+    /**
+     * 空闲的只读视图，数量不超过同时盖章的线程数
+     */
+    private final Queue<PdfDocument> views = new ConcurrentLinkedQueue<>();
+    private volatile OutputProfile outputProfile = OutputProfile.DEFAULT;
+
+    private PdfTemplate(IRandomAccessSource content) throws IOException {
+        this.content = content;
+        this.source = new PdfDocument(new PdfReader(content, new ReaderProperties()));
+    }
+
+    /**
+     * 读入模板，文件一次性读入内存，后续盖章直接从内存读取
+     *
+     * @param pdf 模板文件
+     * @throws IOException
+     */
+    public static PdfTemplate compile(File pdf) throws IOException {
+        return new PdfTemplate(new RandomAccessSourceFactory().createSource(Files.readAllBytes(pdf.toPath())));
+    }
+
+    /**
+     * 映射模板文件
+     *
+     * @param pdf 模板文件，不能超过2G
+     * @throws IOException
+     */
+    public static PdfTemplate map(File pdf) throws IOException {
+        return new PdfTemplate(ByteBufferSource.map(pdf));
+    }
+
+    /**
+     * 用模板创建表单域，参数同{@link PdfUtil#createText(File, String, List)}
+     *
+     * @param savePath 保存路径
+     * @param list     表单域
+     * @throws IOException
+     */
+    public void createText(String savePath, List<PDFModel> list) throws IOException {
+        createText(savePath, FieldBatch.of(list));
+    }
+
+    /**
+     * 用模板创建表单域
+     *
+     * @param savePath 保存路径
+     * @param batch    按列存放的表单域
+     * @throws IOException
+     */
+    public void createText(String savePath, FieldBatch batch) throws IOException {
+        PdfWriter pdfWriter = new PdfWriter(savePath, outputProfile.createWriterProperties());
+        try {
+            createText(pdfWriter, batch, new StampTrace(savePath));
+        } finally {
+            pdfWriter.close();
+        }
+    }
+
+    /**
+     * 用模板创建表单域，结果直接写入输出流
+     *
+     * @param out  输出流，由调用方关闭
+     * @param list 表单域
+     * @throws IOException
+     */
+    public void createText(OutputStream out, List<PDFModel> list) throws IOException {
+        createText(out, FieldBatch.of(list));
+    }
+
+    /**
+     * 用模板创建表单域，结果直接写入输出流
+     *
+     * @param out   输出流，由调用方关闭
+     * @param batch 按列存放的表单域
+     * @throws IOException
+     */
+    public void createText(OutputStream out, FieldBatch batch) throws IOException {
+        PdfWriter pdfWriter = new PdfWriter(out, outputProfile.createWriterProperties());
+        pdfWriter.setCloseStream(false);
+        createText(pdfWriter, batch, new StampTrace(null));
+        pdfWriter.flush();
+    }
+
+    /**
+     * 失败时不写出文档，只关闭模板视图，writer由调用方关闭
+     */
+    private void createText(PdfWriter pdfWriter, FieldBatch batch, StampTrace trace) throws IOException {
+        long start = System.nanoTime();
+        PdfDocument view = views.poll();
+        if (view == null) {
+            view = openView(null);
+        }
+        try {
+            PdfDocument pdfDocument = new PdfDocument(pdfWriter);
+            view.copyPagesTo(1, view.getNumberOfPages(), pdfDocument, new PdfPageFormCopier());
+            // 模板已在内存中，不计读取量
+            trace.opened(start, 0);
+            PdfUtil.stampFields(pdfDocument, batch, new StampOptions(), trace);
+
+            start = System.nanoTime();
+            pdfDocument.close();
+            trace.closed(start, pdfWriter);
+        } catch (IOException | RuntimeException e) {
+            view.close();
+            throw e;
+        }
+        views.offer(view);
+    }
+
+    /**
+     * 给模板中已有的表单域填值
+     * <p>
+     * 表单域填值后仍可编辑，字体默认整体嵌入，不做子集，否则再输入子集外的字会显示不出来。
+     *
+     * @param savePath 保存路径
+     * @param values   表单域全名 -> 值，模板中不存在的名称忽略
+     * @return 实际填值的表单域个数
+     * @throws IOException
+     */
+    public int fill(String savePath, Map<String, String> values) throws IOException {
+        return fill(savePath, values, fillOptions());
+    }
+
+    /**
+     * 给模板中已有的表单域填值
+     *
+     * @param savePath 保存路径
+     * @param values   表单域全名 -> 值，模板中不存在的名称忽略
+     * @param options  可选参数，只有fontSubset生效，压缩方式见{@link #setOutputProfile(OutputProfile)}
+     * @return 实际填值的表单域个数
+     * @throws IOException
+     */
+    public int fill(String savePath, Map<String, String> values, StampOptions options) throws IOException {
+        PdfWriter pdfWriter = new PdfWriter(savePath, outputProfile.createWriterProperties());
+        try {
+            return fill(pdfWriter, values, options, new StampTrace(savePath));
+        } finally {
+            pdfWriter.close();
+        }
+    }
+
+    /**
+     * 给模板中已有的表单域填值，结果直接写入输出流，字体同{@link #fill(String, Map)}整体嵌入
+     *
+     * @param out    输出流，由调用方关闭
+     * @param values 表单域全名 -> 值，模板中不存在的名称忽略
+     * @return 实际填值的表单域个数
+     * @throws IOException
+     */
+    public int fill(OutputStream out, Map<String, String> values) throws IOException {
+        return fill(out, values, fillOptions());
+    }
+
+    /**
+     * 给模板中已有的表单域填值，结果直接写入输出流
+     *
+     * @param out     输出流，由调用方关闭
+     * @param values  表单域全名 -> 值，模板中不存在的名称忽略
+     * @param options 可选参数，只有fontSubset生效，压缩方式见{@link #setOutputProfile(OutputProfile)}
+     * @return 实际填值的表单域个数
+     * @throws IOException
+     */
+    public int fill(OutputStream out, Map<String, String> values, StampOptions options) throws IOException {
+        PdfWriter pdfWriter = new PdfWriter(out, outputProfile.createWriterProperties());
+        pdfWriter.setCloseStream(false);
+        int filled = fill(pdfWriter, values, options, new StampTrace(null));
+        pdfWriter.flush();
+        return filled;
+    }
+
+    /**
+     * 填值的默认参数：不做字体子集
+     */
+    private static StampOptions fillOptions() {
+        StampOptions options = new StampOptions();
+        options.setFontSubset(false);
+        return options;
+    }
+
+    /**
+     * 以追加模式在模板上修改（对象号与模板相同），按索引取表单域，不遍历表单树；
+     * 模板原样输出，只追加被修改的表单域、外观和字体
+     */
+    private int fill(PdfWriter pdfWriter, Map<String, String> values, StampOptions options, StampTrace trace) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Integer> index = getFieldIndex();
+        PdfDocument pdfDocument = openView(pdfWriter);
+        trace.opened(start, 0);
+        try {
+            int filled = fill(pdfDocument, index, values, options, trace);
+
+            start = System.nanoTime();
+            pdfDocument.close();
+            trace.closed(start, pdfWriter);
+            return filled;
+        } catch (IOException | RuntimeException e) {
+            // 失败时不再写出文档，只关闭模板视图，writer由调用方关闭
+            pdfDocument.getReader().close();
+            throw e;
+        }
+    }
+
+    private int fill(PdfDocument pdfDocument, Map<String, Integer> index, Map<String, String> values, StampOptions options,
+                     StampTrace trace) throws IOException {
+        DocumentFonts fonts = new DocumentFonts(options, trace);
+        long start = System.nanoTime();
+        int filled = 0;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            Integer objNumber = index.get(entry.getKey());
+            if (objNumber == null) {
+                continue;
+            }
+            PdfFormField field = PdfFormField.makeFormField(pdfDocument.getPdfObject(objNumber), pdfDocument);
+            String value = entry.getValue() == null ? "" : entry.getValue();
+            if (PdfName.Tx.equals(field.getFormType())) {
+                // 文本域统一用默认字体生成外观，模板自带的字体往往不支持中文；字号沿用模板
+                field.setValue(value, fonts.get(null), getFontSize(field));
+            } else {
+                field.setValue(value);
+            }
+            // 追加模式只写出标记为修改的对象，值在表单域上，外观在各个widget上
+            field.setModified();
+            for (PdfWidgetAnnotation widget : field.getWidgets()) {
+                widget.setModified();
+            }
+            filled++;
+        }
+        trace.fieldNanos += System.nanoTime() - start - trace.fontNanos;
+        trace.fields = filled;
+        return filled;
+    }
+
+    private Map<String, Integer> getFieldIndex() {
+        synchronized (source) {
+            if (fieldIndex == null) {
+                Map<String, Integer> index = new HashMap<>();
+                PdfAcroForm pdfAcroForm = PdfAcroForm.getAcroForm(source, false);
+                if (pdfAcroForm != null) {
+                    for (Map.Entry<String, PdfFormField> entry : pdfAcroForm.getFormFields().entrySet()) {
+                        PdfIndirectReference reference = entry.getValue().getPdfObject().getIndirectReference();
+                        if (reference != null) {
+                            index.put(entry.getKey(), reference.getObjNumber());
+                        }
+                    }
+                }
+                fieldIndex = Collections.unmodifiableMap(index);
+            }
+            return fieldIndex;
+        }
+    }
+
+    /**
+     * 从默认外观DA（如"/Helv 10 Tf 0 g"）中取字号，没有时用12，0表示自动
+     */
+    private static float getFontSize(PdfFormField field) {
+        PdfString da = field.getDefaultAppearance();
+        if (da != null) {
+            String[] tokens = da.toUnicodeString().trim().split("\\s+");
+            for (int i = 1; i < tokens.length; i++) {
+                if ("Tf".equals(tokens[i])) {
+                    try {
+                        return Float.parseFloat(tokens[i - 1]);
+                    } catch (NumberFormatException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return PdfFormField.DEFAULT_FONT_SIZE;
+    }
+
+    /**
+     * 在模板内容上打开一个独立的文档，每次盖章一个，可以并发；
+     * 模板内容被多次盖章共用，reader关闭时不能关闭它
+     *
+     * @param pdfWriter 为null时只读打开，否则以追加模式打开（对象号与模板相同）
+     */
+    private PdfDocument openView(PdfWriter pdfWriter) throws IOException {
+        PdfReader pdfReader = new PdfReader(new IndependentRandomAccessSource(content), new ReaderProperties());
+        if (pdfWriter == null) {
+            return new PdfDocument(pdfReader);
+        }
+        return new PdfDocument(pdfReader, pdfWriter, new StampingProperties().useAppendMode());
+    }
+
+    /**
+     * 设置用此模板生成的文件的压缩方式，默认{@link OutputProfile#DEFAULT}
+     */
+    public void setOutputProfile(OutputProfile outputProfile) {
+        this.outputProfile = outputProfile;
+    }
+
+    public int getNumberOfPages() {
+        return source.getNumberOfPages();
+    }
+
+    /**
+     * 模板文件大小
+     */
+    public long getLength() {
+        return content.length();
+    }
+
+    @Override
+    public void close() {
+        for (PdfDocument view; (view = views.poll()) != null; ) {
+            view.close();
+        }
+        source.close();
+    }
+}
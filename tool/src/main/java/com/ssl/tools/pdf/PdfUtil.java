@@ -1,28 +1,34 @@
-package com.rsr.common;
-
-import com.alibaba.fastjson.JSONObject;
-import com.itextpdf.forms.PdfAcroForm;
-import com.itextpdf.forms.fields.PdfTextFormField;
-import com.itextpdf.io.font.FontProgram;
-import com.itextpdf.io.font.FontProgramFactory;
-import com.itextpdf.io.font.PdfEncodings;
-import com.itextpdf.kernel.colors.ColorConstants;
-import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
+package com.ssl.tools.pdf;
+
+import com.alibaba.fastjson.JSONReader;
+import com.itextpdf.forms.PdfPageFormCopier;
 import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.StampingProperties;
 import com.ssl.tools.PDFModel;
 
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
+import java.util.function.IntFunction;
 
 public class PdfUtil {
     /**
@@ -56,65 +62,519 @@ public class PdfUtil {
      * @throws IOException
      */
     public static void createText(File pdf, String savePath,  List<PDFModel> list) throws IOException, InterruptedException {
-        // 编辑后的文件
-        PdfWriter pdfWriter = new PdfWriter(savePath);
-        PdfDocument pdfDocument = new PdfDocument(new PdfReader(pdf), pdfWriter);
-        PdfAcroForm pdfAcroForm = PdfAcroForm.getAcroForm(pdfDocument, true);
+        createText(pdf, savePath, list, new StampOptions());
+    }
 
-        //font
+    /**
+     * 在pdf上创建表单域
+     *
+     * @param pdf      源文件
+     * @param savePath 保存路径
+     * @param list     表单域，格式同{@link #createText(File, String, List)}
+     * @param options  可选参数
+     * @throws IOException
+     */
+    public static void createText(File pdf, String savePath, List<PDFModel> list, StampOptions options) throws IOException {
+        createText(pdf, savePath, FieldBatch.of(list), options);
+    }
 
-        FontProgram fontProgram;
-        PdfFont font;
+    /**
+     * 在pdf上创建表单域，表单域按列存放，适合上游一次传大量表单域
+     *
+     * @param pdf      源文件
+     * @param savePath 保存路径
+     * @param batch    表单域
+     * @param options  可选参数
+     * @throws IOException
+     */
+    public static void createText(File pdf, String savePath, FieldBatch batch, StampOptions options) throws IOException {
+        stamp(pdf, savePath, options, (pdfDocument, trace) -> stampFields(pdfDocument, batch, options, trace));
+    }
 
+    /**
+     * 在pdf上创建表单域，表单域从json流中边读边创建，不需要先把整个json解析成List
+     * <p>
+     * 表单域按到达顺序创建，不按页分组，options中的flushPages不生效。
+     *
+     * @param pdf      源文件
+     * @param savePath 保存路径
+     * @param json     UTF-8编码的json数组，格式同{@link #createText(File, String, List)}
+     * @param options  可选参数
+     * @throws IOException
+     */
+    public static void createTextFromJson(File pdf, String savePath, InputStream json, StampOptions options) throws IOException {
+        stamp(pdf, savePath, options, (pdfDocument, trace) -> stampJson(pdfDocument, json, options, trace));
+    }
 
-        PdfTextFormField pdfTextFormField;
-        JSONObject field;
-        Rectangle rectangle;
-//    int count =1;
-        Map<String,Integer>index=new HashMap<>();
-        for (PDFModel pdfEntity : list) {
-
-            String font1 = pdfEntity.getFont();
-            // 读取ttf字体文件
-            String path=getClasspath();
-            fontProgram = FontProgramFactory.createFont(getClasspath()+"font\\STKAITI.TTF");
-            // 编码使用 PdfEncodings.IDENTITY_H
-            font = PdfFontFactory.createFont(fontProgram, PdfEncodings.IDENTITY_H, true);
-
-            // 设置表单域的位置
-            float positionX = pdfEntity.getPositionX();
-            float positionY = pdfEntity.getPositionY();
-            float width = pdfEntity.getWidth();
-            float height = pdfEntity.getHeight();
-            rectangle = new Rectangle(positionX, positionY, width,height);
-            String name = pdfEntity.getName();
-            String value = pdfEntity.getValue();
-            //判断key是否 重
-            if(index.containsKey(name)){
-                Integer count=index.get(name);
-
-                index.put(name,1+count);
-                name=name+"#"+count;
-                pdfTextFormField = PdfTextFormField.createText(pdfDocument, rectangle, name, value);
-            }else{
-                pdfTextFormField = PdfTextFormField.createText(pdfDocument, rectangle, name, value);
-                index.put(name,0);
+    /**
+     * 按顺序合并多个模板并创建表单域，一次读写生成一个文件，不需要先分别盖章再拼接
+     *
+     * @param parts    模板及其表单域，表单域的页码是各自模板内的页码
+     * @param savePath 保存路径
+     * @throws IOException
+     */
+    public static void merge(List<StampPart> parts, String savePath) throws IOException {
+        merge(parts, savePath, new StampOptions());
+    }
+
+    /**
+     * 按顺序合并多个模板并创建表单域
+     * <p>
+     * 各模板的页面依次复制到同一个文档中，表单域的页码换算成合并后的页码，整个文档只创建一次字体和表单，
+     * 重名表单域在整个文档范围内编号。options中的appendMode不生效。
+     *
+     * @param parts    模板及其表单域，表单域的页码是各自模板内的页码
+     * @param savePath 保存路径
+     * @param options  可选参数
+     * @throws IOException
+     */
+    public static void merge(List<StampPart> parts, String savePath, StampOptions options) throws IOException {
+        StampTrace trace = new StampTrace(savePath);
+        PdfWriter pdfWriter = new PdfWriter(savePath, options.getOutputProfile().createWriterProperties());
+        PdfDocument pdfDocument = new PdfDocument(pdfWriter);
+        try {
+            FieldBatch batch = new FieldBatch();
+            for (StampPart part : parts) {
+                int offset = pdfDocument.getNumberOfPages();
+                long start = System.nanoTime();
+                try (PdfDocument source = new PdfDocument(openReader(part.getPdf(), options))) {
+                    source.copyPagesTo(1, source.getNumberOfPages(), pdfDocument, new PdfPageFormCopier());
+                    trace.opened(start, source.getReader().getFileLength());
+                }
+                int numberOfPages = pdfDocument.getNumberOfPages() - offset;
+                FieldBatch partBatch = FieldBatch.of(part.getFields());
+                for (int i = 0; i < partBatch.size(); i++) {
+                    int page = partBatch.getPage(i);
+                    if (page < 1 || page > numberOfPages) {
+                        throw new IllegalArgumentException("page " + page + " out of range, " + part.getPdf() + " has " + numberOfPages + " pages");
+                    }
+                    batch.add(partBatch, i, page + offset);
+                }
             }
+            stampFields(pdfDocument, batch, options, trace);
+        } catch (IOException | RuntimeException e) {
+            pdfWriter.close();
+            throw e;
+        }
 
+        long start = System.nanoTime();
+        pdfDocument.close();
+        pdfWriter.close();
+        trace.closed(start, pdfWriter);
+    }
 
-            Integer page = pdfEntity.getPage();
-            Integer fontSize = pdfEntity.getFontSize();
+    /**
+     * 只输出指定页码范围并在其上创建表单域，适合预览
+     * <p>
+     * 只复制范围内的页面及其引用的字体、图片等资源，范围外的页面不会被解析；
+     * 不在范围内的表单域忽略，输出文件的页码从1开始。
+     *
+     * @param pdf      源文件
+     * @param savePath 保存路径
+     * @param list     表单域，页码是源文件中的页码
+     * @param fromPage 起始页，从1开始
+     * @param toPage   结束页（含）
+     * @param options  可选参数
+     * @throws IOException
+     */
+    public static void extract(File pdf, String savePath, List<PDFModel> list, int fromPage, int toPage, StampOptions options) throws IOException {
+        try (PdfDocument source = new PdfDocument(openReader(pdf, options))) {
+            checkPageRange(source, fromPage, toPage);
+            copyPages(source, source.getReader().getFileLength(), savePath, FieldBatch.of(list), fromPage, toPage, options);
+        }
+    }
 
-            pdfTextFormField.setBorderWidth(0).setReadOnly(true).setColor(ColorConstants.BLACK).setFontAndSize(font,fontSize);
+    /**
+     * 按页数拆分成多个文件并在其上创建表单域
+     * <p>
+     * 源文件只打开一次，已解析的对象在各个文件之间共用；每个输出文件中，被多页共用的资源只复制一份。
+     *
+     * @param pdf          源文件
+     * @param list         表单域，页码是源文件中的页码
+     * @param pagesPerFile 每个文件的页数，最后一个文件可能不足
+     * @param savePath     第几个文件（从0开始）的保存路径
+     * @param options      可选参数
+     * @return 生成的文件路径
+     * @throws IOException
+     */
+    public static List<String> split(File pdf, List<PDFModel> list, int pagesPerFile, IntFunction<String> savePath, StampOptions options) throws IOException {
+        if (pagesPerFile < 1) {
+            throw new IllegalArgumentException("pagesPerFile must be positive");
+        }
+        FieldBatch batch = FieldBatch.of(list);
+        List<String> paths = new ArrayList<>();
+        try (PdfDocument source = new PdfDocument(openReader(pdf, options))) {
+            int numberOfPages = source.getNumberOfPages();
+            for (int fromPage = 1; fromPage <= numberOfPages; fromPage += pagesPerFile) {
+                String path = savePath.apply(paths.size());
+                // 模板只在第一个文件中计为读取
+                long bytesRead = paths.isEmpty() ? source.getReader().getFileLength() : 0;
+                copyPages(source, bytesRead, path, batch, fromPage, Math.min(fromPage + pagesPerFile - 1, numberOfPages), options);
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    private static void checkPageRange(PdfDocument source, int fromPage, int toPage) {
+        int numberOfPages = source.getNumberOfPages();
+        if (fromPage < 1 || toPage < fromPage || toPage > numberOfPages) {
+            throw new IllegalArgumentException("page range " + fromPage + "-" + toPage + " out of range, document has " + numberOfPages + " pages");
+        }
+    }
+
+    /**
+     * 把源文档的fromPage到toPage复制到新文件，并创建落在这些页上的表单域
+     */
+    private static void copyPages(PdfDocument source, long bytesRead, String savePath, FieldBatch batch, int fromPage, int toPage,
+                                  StampOptions options) throws IOException {
+        FieldBatch pageBatch = new FieldBatch();
+        for (int i = 0; i < batch.size(); i++) {
+            int page = batch.getPage(i);
+            if (page >= fromPage && page <= toPage) {
+                pageBatch.add(batch, i, page - fromPage + 1);
+            }
+        }
 
-//        pdfTextFormField.setPage(count);
-            /** 将表单域加入pdf的指定页中 */
-            pdfAcroForm.addField(pdfTextFormField, pdfDocument.getPage(page));
-//        count++;
+        StampTrace trace = new StampTrace(savePath);
+        long start = System.nanoTime();
+        PdfWriter pdfWriter = new PdfWriter(savePath, options.getOutputProfile().createWriterProperties());
+        PdfDocument pdfDocument = new PdfDocument(pdfWriter);
+        try {
+            source.copyPagesTo(fromPage, toPage, pdfDocument, new PdfPageFormCopier());
+            trace.opened(start, bytesRead);
+            stampFields(pdfDocument, pageBatch, options, trace);
+        } catch (IOException | RuntimeException e) {
+            pdfWriter.close();
+            throw e;
         }
 
+        start = System.nanoTime();
         pdfDocument.close();
         pdfWriter.close();
+        trace.closed(start, pdfWriter);
+    }
+
+    /**
+     * 打开源文件和保存路径，在文档上执行action后关闭
+     */
+    private static void stamp(File pdf, String savePath, StampOptions options, DocumentAction action) throws IOException {
+        StampTrace trace = new StampTrace(savePath);
+        if (options.isAppendMode()) {
+            try (FileChannel out = FileChannel.open(Paths.get(savePath), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                append(pdf, out, options, action, trace);
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        PdfReader pdfReader = openReader(pdf, options);
+        PdfWriter pdfWriter;
+        try {
+            // 编辑后的文件
+            pdfWriter = new PdfWriter(savePath, options.getOutputProfile().createWriterProperties());
+        } catch (IOException | RuntimeException e) {
+            pdfReader.close();
+            throw e;
+        }
+        stamp(pdfReader, pdfWriter, new StampingProperties(), start, action, trace);
+    }
+
+    /**
+     * 打开源文件，在文档上执行action后写到调用方的输出通道
+     */
+    private static void stamp(File pdf, WritableByteChannel out, StampOptions options, DocumentAction action) throws IOException {
+        StampTrace trace = new StampTrace(null);
+        if (options.isAppendMode()) {
+            append(pdf, out, options, action, trace);
+            return;
+        }
+        long start = System.nanoTime();
+        stamp(openReader(pdf, options), start, Channels.newOutputStream(out), options, action, trace);
+    }
+
+    /**
+     * 在已打开的源文件上执行action后写到调用方的输出流
+     */
+    private static void stamp(PdfReader pdfReader, long start, OutputStream out, StampOptions options, DocumentAction action,
+                              StampTrace trace) throws IOException {
+        StampingProperties properties = new StampingProperties();
+        if (options.isAppendMode()) {
+            // 源文件不在磁盘上，原内容由itext再写一遍
+            properties.useAppendMode();
+        }
+        stamp(pdfReader, newWriter(out, options), properties, start, action, trace);
+    }
+
+    /**
+     * 追加模式：原文件用transferTo直接拷贝到输出通道，itext只负责追加新的对象和xref
+     */
+    private static void append(File pdf, WritableByteChannel out, StampOptions options, DocumentAction action, StampTrace trace) throws IOException {
+        long start = System.nanoTime();
+        long size;
+        try (FileChannel in = FileChannel.open(pdf.toPath(), StandardOpenOption.READ)) {
+            size = in.size();
+            for (long position = 0; position < size; ) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+        // itext追加模式会先把原文件再写一遍，这部分已经拷贝过了，直接丢弃
+        PdfWriter pdfWriter = newWriter(new SkipOutputStream(Channels.newOutputStream(out), size), options);
+        stamp(openReader(pdf, options), pdfWriter, new StampingProperties().useAppendMode(), start, action, trace);
+    }
+
+    /**
+     * 在打开的文档上执行action后关闭文档
+     */
+    private static void stamp(PdfReader pdfReader, PdfWriter pdfWriter, StampingProperties properties, long start,
+                              DocumentAction action, StampTrace trace) throws IOException {
+        PdfDocument pdfDocument;
+        try {
+            pdfDocument = new PdfDocument(pdfReader, pdfWriter, properties);
+            trace.opened(start, pdfReader.getFileLength());
+            action.apply(pdfDocument, trace);
+        } catch (IOException | RuntimeException e) {
+            // 失败（包括被取消）时不再写出文档，只释放文件句柄
+            pdfReader.close();
+            pdfWriter.close();
+            throw e;
+        }
+
+        start = System.nanoTime();
+        pdfDocument.close();
+        if (!pdfWriter.isCloseStream()) {
+            // itext关闭时不会刷新不归它关闭的输出流
+            pdfWriter.flush();
+        }
+        trace.closed(start, pdfWriter);
+    }
+
+    /**
+     * 写到调用方的输出流，输出流由调用方关闭
+     */
+    private static PdfWriter newWriter(OutputStream out, StampOptions options) {
+        PdfWriter pdfWriter = new PdfWriter(out, options.getOutputProfile().createWriterProperties());
+        pdfWriter.setCloseStream(false);
+        return pdfWriter;
+    }
+
+    /**
+     * 按options打开源文件
+     */
+    static PdfReader openReader(File pdf, StampOptions options) throws IOException {
+        if (options.isMemoryMapped()) {
+            return new PdfReader(ByteBufferSource.map(pdf), new ReaderProperties());
+        }
+        return new PdfReader(pdf);
+    }
+
+    /**
+     * 在pdf上创建表单域，结果直接写入输出流，不落临时文件
+     *
+     * @param pdf  源文件
+     * @param out  输出流，由调用方关闭
+     * @param list 表单域，格式同{@link #createText(File, String, List)}
+     * @throws IOException
+     */
+    public static void createText(File pdf, OutputStream out, List<PDFModel> list) throws IOException {
+        createText(pdf, out, list, new StampOptions());
+    }
+
+    /**
+     * 在pdf上创建表单域，结果直接写入输出流，不落临时文件
+     *
+     * @param pdf     源文件
+     * @param out     输出流，由调用方关闭
+     * @param list    表单域，格式同{@link #createText(File, String, List)}
+     * @param options 可选参数
+     * @throws IOException
+     */
+    public static void createText(File pdf, OutputStream out, List<PDFModel> list, StampOptions options) throws IOException {
+        createText(pdf, Channels.newChannel(out), list, options);
+    }
+
+    /**
+     * 在pdf上创建表单域，结果直接写入输出通道；追加模式下原文件用transferTo拷贝到通道
+     *
+     * @param pdf     源文件
+     * @param out     输出通道，由调用方关闭
+     * @param list    表单域，格式同{@link #createText(File, String, List)}
+     * @param options 可选参数
+     * @throws IOException
+     */
+    public static void createText(File pdf, WritableByteChannel out, List<PDFModel> list, StampOptions options) throws IOException {
+        FieldBatch batch = FieldBatch.of(list);
+        stamp(pdf, out, options, (pdfDocument, trace) -> stampFields(pdfDocument, batch, options, trace));
+    }
+
+    /**
+     * 在pdf上创建表单域，结果直接写入输出流，不落临时文件
+     *
+     * @param pdf  源文件，itext需要随机读取，会在内部一次性读入内存
+     * @param out  输出流，由调用方关闭
+     * @param list 表单域，格式同{@link #createText(File, String, List)}
+     * @throws IOException
+     */
+    public static void createText(InputStream pdf, OutputStream out, List<PDFModel> list) throws IOException {
+        createText(pdf, out, list, new StampOptions());
+    }
+
+    /**
+     * 在pdf上创建表单域，结果直接写入输出流，不落临时文件
+     * <p>
+     * options中的memoryMapped不生效；追加模式下原内容由itext写出，不能像文件那样直接拷贝。
+     *
+     * @param pdf     源文件，itext需要随机读取，会在内部一次性读入内存
+     * @param out     输出流，由调用方关闭
+     * @param list    表单域，格式同{@link #createText(File, String, List)}
+     * @param options 可选参数
+     * @throws IOException
+     */
+    public static void createText(InputStream pdf, OutputStream out, List<PDFModel> list, StampOptions options) throws IOException {
+        FieldBatch batch = FieldBatch.of(list);
+        long start = System.nanoTime();
+        stamp(new PdfReader(pdf), start, out, options, (pdfDocument, trace) -> stampFields(pdfDocument, batch, options, trace),
+                new StampTrace(null));
+    }
+
+    /**
+     * 在pdf上创建表单域，直接在buffer上读取源文件（堆内、堆外或FileChannel.map得到的buffer均可），不复制
+     *
+     * @param pdf  源文件，读取position到limit之间的内容，buffer本身不会被修改或释放
+     * @param out  输出通道，由调用方关闭
+     * @param list 表单域，格式同{@link #createText(File, String, List)}
+     * @throws IOException
+     */
+    public static void createText(ByteBuffer pdf, WritableByteChannel out, List<PDFModel> list) throws IOException {
+        createText(pdf, out, list, new StampOptions());
+    }
+
+    /**
+     * 在pdf上创建表单域，直接在buffer上读取源文件，不复制
+     * <p>
+     * options中的memoryMapped不生效；追加模式下原内容由itext写出。
+     *
+     * @param pdf     源文件，读取position到limit之间的内容，buffer本身不会被修改或释放
+     * @param out     输出通道，由调用方关闭
+     * @param list    表单域，格式同{@link #createText(File, String, List)}
+     * @param options 可选参数
+     * @throws IOException
+     */
+    public static void createText(ByteBuffer pdf, WritableByteChannel out, List<PDFModel> list, StampOptions options) throws IOException {
+        FieldBatch batch = FieldBatch.of(list);
+        long start = System.nanoTime();
+        stamp(new PdfReader(new ByteBufferSource(pdf), new ReaderProperties()), start, Channels.newOutputStream(out), options,
+                (pdfDocument, trace) -> stampFields(pdfDocument, batch, options, trace), new StampTrace(null));
+    }
+
+    /**
+     * 在已打开的文档上创建表单域，不负责关闭文档
+     * <p>
+     * 表单域先按页分组，每页只取一次PdfPage，按页码顺序处理；
+     * 重名表单域的编号在分组前按原始顺序确定，与batch的顺序一致。
+     * 扁平化模式下不创建表单域，值直接写到页面内容上。
+     *
+     * @param pdfDocument 可写的文档
+     * @param batch       表单域
+     * @param options     可选参数
+     * @param trace       计时
+     * @throws IOException
+     */
+    static void stampFields(PdfDocument pdfDocument, FieldBatch batch, StampOptions options, StampTrace trace) throws IOException {
+        FieldStamper stamper = new FieldStamper(pdfDocument, options, new NameAllocator(batch.size()), trace);
+        String[] names = new String[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            names[i] = stamper.allocateName(batch.getName(i));
+        }
+
+        Rectangle rectangle;
+        int[] order = sortByPage(batch, pdfDocument.getNumberOfPages());
+        int i = 0;
+        while (i < order.length) {
+            checkInterrupted();
+            int page = batch.getPage(order[i]);
+            PdfPage pdfPage = stamper.getPage(page);
+            for (; i < order.length && batch.getPage(order[i]) == page; i++) {
+                int field = order[i];
+                // 设置表单域的位置
+                rectangle = new Rectangle(batch.getPositionX(field), batch.getPositionY(field), batch.getWidth(field), batch.getHeight(field));
+                if (batch.getImage(field) != null) {
+                    stamper.stampImage(pdfPage, rectangle, names[field], batch.getImage(field));
+                    continue;
+                }
+                stamper.stamp(pdfPage, rectangle, batch.getFont(field), batch.getFontSize(field), batch.isAutoFontSize(field),
+                        batch.isMultiline(field), names[field], batch.getValue(field));
+            }
+            stamper.finishPage(pdfPage);
+            // 这一页的表单域已经全部加完，提前写出，长文档内存不随页数增长
+            if (options.isFlushPages()) {
+                pdfPage.flush();
+            }
+        }
+    }
+
+    /**
+     * 线程被中断（异步任务取消或超时）时停止处理
+     */
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("stamping interrupted");
+        }
+    }
+
+    /**
+     * 从json流中逐个读取表单域并创建，读到一个创建一个
+     */
+    private static void stampJson(PdfDocument pdfDocument, InputStream json, StampOptions options, StampTrace trace) throws IOException {
+        FieldStamper stamper = new FieldStamper(pdfDocument, options, new NameAllocator(), trace);
+        JSONReader reader = new JSONReader(new InputStreamReader(json, StandardCharsets.UTF_8));
+        reader.startArray();
+        for (int index = 0; reader.hasNext(); index++) {
+            checkInterrupted();
+            PDFModel pdfEntity = reader.readObject(PDFModel.class);
+            PdfPage pdfPage = stamper.getPage(FieldBatch.getPage(pdfEntity, index));
+            Rectangle rectangle = new Rectangle(pdfEntity.getPositionX(), pdfEntity.getPositionY(), pdfEntity.getWidth(), pdfEntity.getHeight());
+            if (pdfEntity.getImage() != null) {
+                stamper.stampImage(pdfPage, rectangle, stamper.allocateName(pdfEntity.getName()), pdfEntity.getImage());
+                continue;
+            }
+            boolean autoFontSize = Boolean.TRUE.equals(pdfEntity.getAutoFontSize());
+            int fontSize = FieldBatch.getFontSize(pdfEntity, autoFontSize, index);
+            stamper.stamp(pdfPage, rectangle, pdfEntity.getFont(), fontSize, autoFontSize,
+                    Boolean.TRUE.equals(pdfEntity.getMultiline()), stamper.allocateName(pdfEntity.getName()), pdfEntity.getValue());
+        }
+        reader.endArray();
+    }
+
+    /**
+     * 按页码做计数排序，同一页内保持原始顺序
+     *
+     * @return 排序后的下标
+     */
+    private static int[] sortByPage(FieldBatch batch, int numberOfPages) {
+        int[] start = new int[numberOfPages + 2];
+        for (int i = 0; i < batch.size(); i++) {
+            int page = batch.getPage(i);
+            if (page < 1 || page > numberOfPages) {
+                throw new IllegalArgumentException("page " + page + " out of range, document has " + numberOfPages + " pages");
+            }
+            start[page + 1]++;
+        }
+        for (int page = 1; page <= numberOfPages; page++) {
+            start[page + 1] += start[page];
+        }
+        int[] order = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            order[start[batch.getPage(i)]++] = i;
+        }
+        return order;
+    }
+
+    /**
+     * 在打开的文档上执行的操作
+     */
+    private interface DocumentAction {
+        void apply(PdfDocument pdfDocument, StampTrace trace) throws IOException;
     }
 
     public static void main(String[] args) throws IOException, InterruptedException {
@@ -0,0 +1,43 @@
+package com.ssl.tools.pdf;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 描述：丢弃前skip个字节的输出流
+ * <p>
+ * 追加模式下原文件已经通过FileChannel.transferTo直接拷贝到目标文件，itext再写一遍的原文件内容在这里丢掉，
+ * itext内部的偏移量计数不受影响。
+ */
+class SkipOutputStream extends FilterOutputStream {
+
+    private long skip;
+
+    SkipOutputStream(OutputStream out, long skip) {
+        super(out);
+        this.skip = skip;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (skip > 0) {
+            skip--;
+            return;
+        }
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (skip > 0) {
+            int n = (int) Math.min(skip, len);
+            skip -= n;
+            off += n;
+            len -= n;
+        }
+        if (len > 0) {
+            out.write(b, off, len);
+        }
+    }
+}
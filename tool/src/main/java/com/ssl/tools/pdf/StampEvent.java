@@ -0,0 +1,109 @@
+package com.ssl.tools.pdf;
+
+/**
+ * 描述：一次盖章的各阶段耗时和读写量，耗时单位均为纳秒
+ */
+public class StampEvent {
+    /**
+     * 保存路径，写入流时为null
+     */
+    private final String target;
+    /**
+     * 打开模板（解析xref、创建文档）
+     */
+    private final long openNanos;
+    /**
+     * 创建字体，包括字体缓存未命中时读取、解析字体文件
+     */
+    private final long fontNanos;
+    /**
+     * 取页面
+     */
+    private final long pageNanos;
+    /**
+     * 创建表单域（不含字体）
+     */
+    private final long fieldNanos;
+    /**
+     * 关闭文档，包括字体子集和写出
+     */
+    private final long closeNanos;
+    private final long totalNanos;
+    private final int fields;
+    /**
+     * 模板大小
+     */
+    private final long bytesRead;
+    /**
+     * 输出大小
+     */
+    private final long bytesWritten;
+
+    StampEvent(String target, long openNanos, long fontNanos, long pageNanos, long fieldNanos, long closeNanos,
+               long totalNanos, int fields, long bytesRead, long bytesWritten) {
+        this.target = target;
+        this.openNanos = openNanos;
+        this.fontNanos = fontNanos;
+        this.pageNanos = pageNanos;
+        this.fieldNanos = fieldNanos;
+        this.closeNanos = closeNanos;
+        this.totalNanos = totalNanos;
+        this.fields = fields;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public long getOpenNanos() {
+        return openNanos;
+    }
+
+    public long getFontNanos() {
+        return fontNanos;
+    }
+
+    public long getPageNanos() {
+        return pageNanos;
+    }
+
+    public long getFieldNanos() {
+        return fieldNanos;
+    }
+
+    public long getCloseNanos() {
+        return closeNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public int getFields() {
+        return fields;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * 按总耗时计算的每秒表单域数
+     */
+    public double getFieldsPerSecond() {
+        return totalNanos == 0 ? 0 : fields * 1e9 / totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "StampEvent{target=" + target + ", fields=" + fields + ", openNanos=" + openNanos + ", fontNanos=" + fontNanos
+                + ", pageNanos=" + pageNanos + ", fieldNanos=" + fieldNanos + ", closeNanos=" + closeNanos
+                + ", totalNanos=" + totalNanos + ", bytesRead=" + bytesRead + ", bytesWritten=" + bytesWritten + "}";
+    }
+}
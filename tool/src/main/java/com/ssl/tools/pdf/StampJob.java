@@ -0,0 +1,57 @@
+package com.ssl.tools.pdf;
+
+import com.ssl.tools.PDFModel;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * 描述：一次盖章任务，对应一次{@link PdfUtil#createText(File, String, List)}调用
+ */
+public class StampJob {
+    /**
+     * 模板pdf
+     */
+    private File pdf;
+    /**
+     * 保存路径
+     */
+    private String savePath;
+    /**
+     * 表单域
+     */
+    private List<PDFModel> fields;
+
+    public StampJob() {
+    }
+
+    public StampJob(File pdf, String savePath, List<PDFModel> fields) {
+        this.pdf = pdf;
+        this.savePath = savePath;
+        this.fields = fields;
+    }
+
+    public File getPdf() {
+        return pdf;
+    }
+
+    public String getSavePath() {
+        return savePath;
+    }
+
+    public List<PDFModel> getFields() {
+        return fields;
+    }
+
+    public void setPdf(File pdf) {
+        this.pdf = pdf;
+    }
+
+    public void setSavePath(String savePath) {
+        this.savePath = savePath;
+    }
+
+    public void setFields(List<PDFModel> fields) {
+        this.fields = fields;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ssl.tools.pdf;
+
+/**
+ * 描述：盖章监听器，每完成一次盖章（创建表单域、填值、合并、拆分的每个输出文件）回调一次
+ * <p>
+ * 通过{@link PdfStampMetrics#addListener(StampListener)}注册，回调在盖章线程中同步执行，应尽快返回。
+ * 需要累计值时可以直接使用{@link StampStatistics}。
+ */
+public interface StampListener {
+
+    void onStamp(StampEvent event);
+}
@@ -0,0 +1,47 @@
+package com.ssl.tools.pdf;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * 描述：Spring Boot自动配置
+ * <p>
+ * 默认注册一个{@link StampStatistics} bean，应用中注入后即可在自己的监控端点或指标库中读取；
+ * 容器中所有的{@link StampListener} bean都会挂到{@link PdfStampMetrics}上，容器关闭时摘除。
+ */
+@Configuration
+public class StampMetricsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public StampStatistics stampStatistics() {
+        return new StampStatistics();
+    }
+
+    @Bean
+    public ListenerRegistration stampListenerRegistration(List<StampListener> listeners) {
+        return new ListenerRegistration(listeners);
+    }
+
+    static class ListenerRegistration implements DisposableBean {
+        private final List<StampListener> listeners;
+
+        ListenerRegistration(List<StampListener> listeners) {
+            this.listeners = listeners;
+            for (StampListener listener : listeners) {
+                PdfStampMetrics.addListener(listener);
+            }
+        }
+
+        @Override
+        public void destroy() {
+            for (StampListener listener : listeners) {
+                PdfStampMetrics.removeListener(listener);
+            }
+        }
+    }
+}
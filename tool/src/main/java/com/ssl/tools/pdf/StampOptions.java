@@ -0,0 +1,81 @@
+package com.ssl.tools.pdf;
+
+/**
+ * 描述：createText的可选参数，默认值与不带options的createText行为一致
+ */
+public class StampOptions {
+    /**
+     * 用FileChannel.map读取模板，文件内容留在操作系统页缓存中，只有用到的对象才会解析到堆里
+     */
+    private boolean memoryMapped;
+    /**
+     * 追加模式（增量更新）：原文件内容原样保留，只在末尾追加新建的表单域和新的xref，
+     * 输出耗时与新增表单域数量相关，与原文件大小基本无关
+     */
+    private boolean appendMode;
+    /**
+     * 每页的表单域加完后立即写出该页，长文档内存占用不随页数增长
+     */
+    private boolean flushPages;
+    /**
+     * 扁平化：值直接写到页面内容上，不生成表单域和AcroForm，输出更小、渲染更快，但不能再编辑
+     */
+    private boolean flatten;
+    /**
+     * 嵌入字体时只保留用到的字形，默认开启。
+     * 表单域允许用户再编辑时需要关闭，否则阅读器重新生成外观时缺少字形
+     */
+    private boolean fontSubset = true;
+    /**
+     * 输出文件的压缩方式，默认与itext默认值一致
+     */
+    private OutputProfile outputProfile = OutputProfile.DEFAULT;
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    public boolean isAppendMode() {
+        return appendMode;
+    }
+
+    public void setAppendMode(boolean appendMode) {
+        this.appendMode = appendMode;
+    }
+
+    public boolean isFlushPages() {
+        return flushPages;
+    }
+
+    public void setFlushPages(boolean flushPages) {
+        this.flushPages = flushPages;
+    }
+
+    public boolean isFlatten() {
+        return flatten;
+    }
+
+    public void setFlatten(boolean flatten) {
+        this.flatten = flatten;
+    }
+
+    public boolean isFontSubset() {
+        return fontSubset;
+    }
+
+    public void setFontSubset(boolean fontSubset) {
+        this.fontSubset = fontSubset;
+    }
+
+    public OutputProfile getOutputProfile() {
+        return outputProfile;
+    }
+
+    public void setOutputProfile(OutputProfile outputProfile) {
+        this.outputProfile = outputProfile;
+    }
+}
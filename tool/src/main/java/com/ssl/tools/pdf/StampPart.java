@@ -0,0 +1,44 @@
+package com.ssl.tools.pdf;
+
+import com.ssl.tools.PDFModel;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * 描述：合并盖章中的一个模板及其表单域，表单域的页码是该模板内的页码
+ */
+public class StampPart {
+    /**
+     * 模板pdf
+     */
+    private File pdf;
+    /**
+     * 表单域
+     */
+    private List<PDFModel> fields;
+
+    public StampPart() {
+    }
+
+    public StampPart(File pdf, List<PDFModel> fields) {
+        this.pdf = pdf;
+        this.fields = fields;
+    }
+
+    public File getPdf() {
+        return pdf;
+    }
+
+    public List<PDFModel> getFields() {
+        return fields;
+    }
+
+    public void setPdf(File pdf) {
+        this.pdf = pdf;
+    }
+
+    public void setFields(List<PDFModel> fields) {
+        this.fields = fields;
+    }
+}
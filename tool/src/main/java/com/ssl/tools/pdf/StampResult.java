@@ -0,0 +1,37 @@
+package com.ssl.tools.pdf;
+
+/**
+ * 描述：单个盖章任务的执行结果，失败时error中保存异常，不会影响同批次的其他任务
+ */
+public class StampResult {
+
+    private final StampJob job;
+
+    private final Throwable error;
+    /**
+     * 耗时，毫秒
+     */
+    private final long elapsedMillis;
+
+    public StampResult(StampJob job, Throwable error, long elapsedMillis) {
+        this.job = job;
+        this.error = error;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public StampJob getJob() {
+        return job;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
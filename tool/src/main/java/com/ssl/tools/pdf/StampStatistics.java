@@ -0,0 +1,102 @@
+package com.ssl.tools.pdf;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 描述：盖章累计统计
+ * <p>
+ * 注册后累计各阶段耗时、读写字节数和表单域数，可以由定时任务、jmx或监控端点读取；
+ * 字体缓存命中率直接取自{@link PdfFontRegistry}。Spring Boot应用中由{@link StampMetricsAutoConfiguration}自动注册为bean。
+ */
+public class StampStatistics implements StampListener {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder fields = new LongAdder();
+    private final LongAdder openNanos = new LongAdder();
+    private final LongAdder fontNanos = new LongAdder();
+    private final LongAdder pageNanos = new LongAdder();
+    private final LongAdder fieldNanos = new LongAdder();
+    private final LongAdder closeNanos = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    @Override
+    public void onStamp(StampEvent event) {
+        count.increment();
+        fields.add(event.getFields());
+        openNanos.add(event.getOpenNanos());
+        fontNanos.add(event.getFontNanos());
+        pageNanos.add(event.getPageNanos());
+        fieldNanos.add(event.getFieldNanos());
+        closeNanos.add(event.getCloseNanos());
+        totalNanos.add(event.getTotalNanos());
+        bytesRead.add(event.getBytesRead());
+        bytesWritten.add(event.getBytesWritten());
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getFields() {
+        return fields.sum();
+    }
+
+    public long getOpenNanos() {
+        return openNanos.sum();
+    }
+
+    public long getFontNanos() {
+        return fontNanos.sum();
+    }
+
+    public long getPageNanos() {
+        return pageNanos.sum();
+    }
+
+    public long getFieldNanos() {
+        return fieldNanos.sum();
+    }
+
+    public long getCloseNanos() {
+        return closeNanos.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * 按累计耗时计算的每秒表单域数（单线程口径，多线程并发时实际吞吐更高）
+     */
+    public double getFieldsPerSecond() {
+        long nanos = getTotalNanos();
+        return nanos == 0 ? 0 : getFields() * 1e9 / nanos;
+    }
+
+    /**
+     * 字体缓存命中率，还没有取过字体时为0
+     */
+    public double getFontCacheHitRate() {
+        long hits = PdfFontRegistry.getCacheHits();
+        long total = hits + PdfFontRegistry.getCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "StampStatistics{count=" + getCount() + ", fields=" + getFields() + ", fieldsPerSecond=" + getFieldsPerSecond()
+                + ", openNanos=" + getOpenNanos() + ", fontNanos=" + getFontNanos() + ", pageNanos=" + getPageNanos()
+                + ", fieldNanos=" + getFieldNanos() + ", closeNanos=" + getCloseNanos() + ", bytesRead=" + getBytesRead()
+                + ", bytesWritten=" + getBytesWritten() + ", fontCacheHitRate=" + getFontCacheHitRate() + "}";
+    }
+}
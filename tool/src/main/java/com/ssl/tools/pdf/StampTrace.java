@@ -0,0 +1,50 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+/**
+ * 描述：一次盖章过程中的计时和计数，随文档一起传递，完成时发布为{@link StampEvent}
+ * <p>
+ * 各阶段的用法相同：阶段开始时记下System.nanoTime()，结束时把差值加到对应字段上。
+ */
+class StampTrace {
+
+    private final String target;
+    private final long start = System.nanoTime();
+
+    long openNanos;
+    long fontNanos;
+    long pageNanos;
+    long fieldNanos;
+    int fields;
+    private long bytesRead;
+
+    StampTrace(String target) {
+        this.target = target;
+    }
+
+    /**
+     * 模板打开（或页面复制）完成
+     *
+     * @param start     开始时间
+     * @param bytesRead 读取的模板大小
+     */
+    void opened(long start, long bytesRead) {
+        this.openNanos += System.nanoTime() - start;
+        this.bytesRead += bytesRead;
+    }
+
+    /**
+     * 文档已关闭，发布事件
+     *
+     * @param start     开始关闭的时间
+     * @param pdfWriter 已关闭的writer，从中取输出大小
+     */
+    void closed(long start, PdfWriter pdfWriter) {
+        long now = System.nanoTime();
+        if (PdfStampMetrics.hasListeners()) {
+            PdfStampMetrics.publish(new StampEvent(target, openNanos, fontNanos, pageNanos, fieldNanos, now - start,
+                    now - this.start, fields, bytesRead, pdfWriter.getCurrentPos()));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.ssl.tools.pdf;
+
+import com.ssl.tools.PDFModel;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FieldBatchTest {
+
+    @Test
+    public void growKeepsEveryColumn() {
+        FieldBatch batch = new FieldBatch(1);
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            if (i % 10 == 9) {
+                batch.add(i, i + 0.5f, i + 0.25f, 10, 20).name("image" + i).image("seal" + (i % 3) + ".png");
+            } else {
+                batch.add(i, i + 0.5f, i + 0.25f, 10 + i, 20 + i).font("font" + (i % 2)).fontSize(i % 30)
+                        .autoFontSize(i % 2 == 0).multiline(i % 3 == 0).name("name" + i).value("value" + i);
+            }
+        }
+        assertEquals(count, batch.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, batch.getPage(i));
+            assertEquals(i + 0.5f, batch.getPositionX(i), 0);
+            assertEquals(i + 0.25f, batch.getPositionY(i), 0);
+            if (i % 10 == 9) {
+                assertEquals(10, batch.getWidth(i), 0);
+                assertEquals(20, batch.getHeight(i), 0);
+                assertEquals("image" + i, batch.getName(i));
+                assertEquals("seal" + (i % 3) + ".png", batch.getImage(i));
+                assertNull(batch.getFont(i));
+                assertNull(batch.getValue(i));
+            } else {
+                assertEquals(10 + i, batch.getWidth(i), 0);
+                assertEquals(20 + i, batch.getHeight(i), 0);
+                assertEquals("font" + (i % 2), batch.getFont(i));
+                assertEquals(i % 30, batch.getFontSize(i));
+                assertEquals(i % 2 == 0, batch.isAutoFontSize(i));
+                assertEquals(i % 3 == 0, batch.isMultiline(i));
+                assertEquals("name" + i, batch.getName(i));
+                assertEquals("value" + i, batch.getValue(i));
+                assertNull(batch.getImage(i));
+            }
+        }
+    }
+
+    @Test
+    public void equalStringsShareOneInstance() {
+        FieldBatch batch = new FieldBatch();
+        String first = new String("合同编号");
+        batch.add(1, 0, 0, 10, 10).font(new String("STKAITI.TTF")).fontSize(12).name("a").value(first);
+        batch.add(2, 0, 0, 10, 10).font(new String("STKAITI.TTF")).fontSize(12).name("b").value(new String("合同编号"));
+        batch.add(3, 0, 0, 10, 10).fontSize(12);
+        assertSame(first, batch.getValue(0));
+        assertSame(first, batch.getValue(1));
+        assertSame(batch.getFont(0), batch.getFont(1));
+        assertNull(batch.getFont(2));
+        assertNull(batch.getName(2));
+        assertNull(batch.getValue(2));
+    }
+
+    @Test
+    public void nameAndValueColumnsDoNotMix() {
+        FieldBatch batch = new FieldBatch();
+        // 同一个字符串既是name又是value，只存一份，各列的下标互不影响
+        batch.add(1, 0, 0, 10, 10).name("x").value("y");
+        batch.add(1, 0, 0, 10, 10).name("y").value("x");
+        assertEquals("x", batch.getName(0));
+        assertEquals("y", batch.getValue(0));
+        assertEquals("y", batch.getName(1));
+        assertEquals("x", batch.getValue(1));
+    }
+
+    @Test
+    public void stringTableGrowsPastInitialSize() {
+        FieldBatch batch = new FieldBatch(4);
+        for (int i = 0; i < 100; i++) {
+            batch.add(1, 0, 0, 10, 10).name("n" + i).value("v" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals("n" + i, batch.getName(i));
+            assertEquals("v" + i, batch.getValue(i));
+        }
+    }
+
+    @Test
+    public void convertsModels() {
+        List<PDFModel> list = new ArrayList<>();
+        PDFModel auto = new PDFModel();
+        auto.setPage(1);
+        auto.setWidth(100);
+        auto.setHeight(20);
+        auto.setAutoFontSize(true);
+        auto.setMultiline(true);
+        auto.setName("auto");
+        auto.setValue("value");
+        list.add(auto);
+        PDFModel image = new PDFModel();
+        image.setPage(2);
+        image.setName("seal");
+        image.setImage("seal.png");
+        image.setValue("ignored");
+        list.add(image);
+
+        FieldBatch batch = FieldBatch.of(list);
+        assertEquals(2, batch.size());
+        // 自动字号时字号可以不填
+        assertEquals(0, batch.getFontSize(0));
+        assertTrue(batch.isAutoFontSize(0));
+        assertTrue(batch.isMultiline(0));
+        assertNull(batch.getImage(0));
+        assertEquals("seal.png", batch.getImage(1));
+        assertNull(batch.getValue(1));
+        assertFalse(batch.isMultiline(1));
+    }
+
+    @Test
+    public void copiesFieldFromAnotherBatch() {
+        FieldBatch source = new FieldBatch();
+        source.add(5, 1, 2, 3, 4).font("font").fontSize(9).autoFontSize(true).multiline(true).name("name").value("value");
+        FieldBatch copy = new FieldBatch();
+        copy.add(source, 0, 1);
+        assertEquals(1, copy.getPage(0));
+        assertEquals(1, copy.getPositionX(0), 0);
+        assertEquals(4, copy.getHeight(0), 0);
+        assertEquals("font", copy.getFont(0));
+        assertEquals(9, copy.getFontSize(0));
+        assertTrue(copy.isAutoFontSize(0));
+        assertTrue(copy.isMultiline(0));
+        assertEquals("name", copy.getName(0));
+        assertEquals("value", copy.getValue(0));
+    }
+
+    @Test
+    public void missingRequiredPropertiesNameTheField() {
+        PDFModel noPage = TestPdfs.field(1, "b", "2");
+        noPage.setPage(null);
+        assertInvalid(TestPdfs.list(TestPdfs.field(1, "a", "1"), noPage), "field 1: page is required");
+
+        PDFModel noFontSize = TestPdfs.field(1, "b", "2");
+        noFontSize.setFontSize(null);
+        assertInvalid(TestPdfs.list(TestPdfs.field(1, "a", "1"), noFontSize),
+                "field 1: fontSize is required unless autoFontSize is set");
+        // 图片域不需要字号
+        noFontSize.setImage("seal.png");
+        assertEquals(2, FieldBatch.of(TestPdfs.list(TestPdfs.field(1, "a", "1"), noFontSize)).size());
+    }
+
+    @Test
+    public void unsetPropertiesHaveDefaults() {
+        FieldBatch batch = new FieldBatch(1);
+        batch.add(1, 0, 0, 10, 10).font("font").fontSize(9).autoFontSize(true).multiline(true).name("a").value("b").image("c");
+        // 下标复用时不残留上一个表单域的属性
+        batch.add(2, 0, 0, 10, 10);
+        assertEquals(2, batch.getPage(1));
+        assertNull(batch.getFont(1));
+        assertEquals(0, batch.getFontSize(1));
+        assertFalse(batch.isAutoFontSize(1));
+        assertFalse(batch.isMultiline(1));
+        assertNull(batch.getName(1));
+        assertNull(batch.getValue(1));
+        assertNull(batch.getImage(1));
+    }
+
+    @Test
+    public void invalidModelIsNotAdded() {
+        FieldBatch batch = new FieldBatch();
+        PDFModel noFontSize = TestPdfs.field(1, "a", "1");
+        noFontSize.setFontSize(null);
+        try {
+            batch.add(noFontSize);
+            fail("fontSize is required");
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, batch.size());
+        }
+    }
+
+    private static void assertInvalid(List<PDFModel> list, String message) {
+        try {
+            FieldBatch.of(list);
+            fail(message);
+        } catch (IllegalArgumentException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.io.font.FontMetrics;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FieldStamperTest {
+
+    private static final float DELTA = 0.001f;
+
+    private static PdfFont font;
+
+    @BeforeClass
+    public static void createFont() throws IOException {
+        font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+    }
+
+    @Test
+    public void fitFontSizeIsLimitedByWidth() {
+        Rectangle rectangle = new Rectangle(0, 0, 100, 50);
+        String value = "a rather long value";
+        float size = FieldStamper.fitFontSize(font, 0, rectangle, value);
+        float available = rectangle.getWidth() - 2 * FieldStamper.PADDING;
+        assertTrue(textWidth(value, size) <= available);
+        assertTrue(textWidth(value, size + 0.01f) > available);
+    }
+
+    @Test
+    public void fitFontSizeIsLimitedByHeight() {
+        Rectangle rectangle = new Rectangle(0, 0, 500, 10);
+        float size = FieldStamper.fitFontSize(font, 0, rectangle, "x");
+        assertTrue(size * lineHeight() <= rectangle.getHeight() + DELTA);
+        assertEquals(size, FieldStamper.fitFontSize(font, 0, rectangle, ""), DELTA);
+    }
+
+    @Test
+    public void fitFontSizeIsCappedByMax() {
+        assertEquals(12f, FieldStamper.fitFontSize(font, 12, new Rectangle(0, 0, 500, 100), "x"), DELTA);
+    }
+
+    @Test
+    public void fitFontSizeNeverReturnsZero() {
+        assertEquals(0.01f, FieldStamper.fitFontSize(font, 0, new Rectangle(0, 0, 4, 10), "x"), DELTA);
+    }
+
+    @Test
+    public void fitMultilineFontSizeIsLargestThatFits() {
+        Rectangle rectangle = new Rectangle(0, 0, 120, 60);
+        String value = "the quick brown fox jumps over the lazy dog, twice over and then once again";
+        float size = FieldStamper.fitMultilineFontSize(font, 0, rectangle, value);
+        assertTrue(fits(rectangle, value, size));
+        assertTrue(!fits(rectangle, value, size + 0.01f));
+        // 换行后比单行能放下的字号大
+        assertTrue(size > FieldStamper.fitFontSize(font, 0, rectangle, value));
+    }
+
+    @Test
+    public void fitMultilineFontSizeWithoutValueFillsOneLine() {
+        Rectangle rectangle = new Rectangle(0, 0, 120, 24);
+        float size = FieldStamper.fitMultilineFontSize(font, 0, rectangle, null);
+        float available = rectangle.getHeight() - 2 * FieldStamper.PADDING;
+        assertTrue(size * lineHeight() <= available);
+        assertTrue((size + 0.01f) * lineHeight() > available);
+        assertEquals(size, FieldStamper.fitMultilineFontSize(font, 0, rectangle, ""), DELTA);
+    }
+
+    @Test
+    public void fitMultilineFontSizeIsCappedByMax() {
+        assertEquals(9f, FieldStamper.fitMultilineFontSize(font, 9, new Rectangle(0, 0, 300, 300), "short"), DELTA);
+    }
+
+    @Test
+    public void fitMultilineFontSizeHonoursLineBreaks() {
+        Rectangle rectangle = new Rectangle(0, 0, 300, 60);
+        float oneLine = FieldStamper.fitMultilineFontSize(font, 0, rectangle, "a");
+        float threeLines = FieldStamper.fitMultilineFontSize(font, 0, rectangle, "a\nb\nc");
+        assertEquals(oneLine / 3, threeLines, 0.01f);
+    }
+
+    private static boolean fits(Rectangle rectangle, String value, float size) {
+        float maxWidth = (rectangle.getWidth() - 2 * FieldStamper.PADDING) * 1000 / size;
+        int lines = LineBreaker.breakLines(GlyphWidths.of(font.getFontProgram()), value, maxWidth).size();
+        return lines * size * lineHeight() <= rectangle.getHeight() - 2 * FieldStamper.PADDING;
+    }
+
+    private static float textWidth(String value, float size) {
+        return GlyphWidths.of(font.getFontProgram()).getWidth(value) * size / 1000;
+    }
+
+    /**
+     * 字号为1时的行高
+     */
+    private static float lineHeight() {
+        FontMetrics metrics = font.getFontProgram().getFontMetrics();
+        return (metrics.getTypoAscender() - metrics.getTypoDescender()) / 1000f;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.io.util.StreamUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FontCatalogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] font;
+    private ClassLoader contextClassLoader;
+    private URLClassLoader classLoader;
+
+    @Before
+    public void readFont() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/font/DejaVuSansMono-ASCII.ttf")) {
+            font = StreamUtil.inputStreamToArray(in);
+        }
+        contextClassLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    @After
+    public void restore() throws IOException {
+        Thread.currentThread().setContextClassLoader(contextClassLoader);
+        FontCatalog.clear();
+        if (classLoader != null) {
+            classLoader.close();
+        }
+    }
+
+    @Test
+    public void scansFontFolderInJar() throws IOException {
+        File jar = folder.newFile("fonts.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("font/"));
+            put(out, "font/JarFont.ttf", font);
+            put(out, "font/readme.txt", new byte[1]);
+            put(out, "font/sub/Nested.ttf", font);
+            put(out, "other/Other.ttf", font);
+        }
+        useClassPath(jar);
+
+        FontCatalog.Location location = FontCatalog.find("JarFont.ttf");
+        assertNotNull(location);
+        assertEquals("JarFont.ttf", location.name);
+        assertEquals(font.length, location.size);
+        // 忽略大小写
+        assertEquals("JarFont.ttf", FontCatalog.find("JARFONT.TTF").name);
+        // 只按文件名解析，jar包里的字体读成字节数组
+        assertEquals("DejaVuSansMono", location.load().getFontNames().getFontName());
+
+        assertNull(FontCatalog.find("readme.txt"));
+        assertNull(FontCatalog.find("Nested.ttf"));
+        assertNull(FontCatalog.find("sub/Nested.ttf"));
+        assertNull(FontCatalog.find("Other.ttf"));
+    }
+
+    @Test
+    public void earlierClassPathEntryWins() throws IOException {
+        File directory = folder.newFolder("classes");
+        File fontFolder = new File(directory, "font");
+        assertTrue(fontFolder.mkdir());
+        byte[] smaller = new byte[font.length / 2];
+        System.arraycopy(font, 0, smaller, 0, smaller.length);
+        Files.write(new File(fontFolder, "JarFont.ttf").toPath(), smaller);
+
+        File jar = folder.newFile("fonts.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            // 类加载器按目录条目找到jar包里的font文件夹，打包工具默认都会写目录条目
+            out.putNextEntry(new JarEntry("font/"));
+            put(out, "font/JarFont.ttf", font);
+            put(out, "font/OnlyInJar.ttf", font);
+        }
+        useClassPath(directory, jar);
+
+        assertEquals(smaller.length, FontCatalog.find("JarFont.ttf").size);
+        assertEquals(font.length, FontCatalog.find("OnlyInJar.ttf").size);
+    }
+
+    /**
+     * 只用指定的classpath扫描字体
+     */
+    private void useClassPath(File... files) throws IOException {
+        URL[] urls = new URL[files.length];
+        for (int i = 0; i < files.length; i++) {
+            urls[i] = files[i].toURI().toURL();
+        }
+        classLoader = new URLClassLoader(urls, null);
+        Thread.currentThread().setContextClassLoader(classLoader);
+        FontCatalog.clear();
+    }
+
+    private static void put(JarOutputStream out, String name, byte[] bytes) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        out.write(bytes);
+        out.closeEntry();
+    }
+}
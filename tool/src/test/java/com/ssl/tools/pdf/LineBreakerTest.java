@@ -0,0 +1,100 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LineBreakerTest {
+
+    /**
+     * itext自带的宋体：汉字和全角标点宽1000，a宽417，空格宽207
+     */
+    private static GlyphWidths widths;
+
+    @BeforeClass
+    public static void createFont() throws IOException {
+        widths = GlyphWidths.of(PdfFontFactory.createFont("STSong-Light", "UniGB-UCS2-H").getFontProgram());
+    }
+
+    @Test
+    public void shortTextStaysOnOneLine() {
+        assertEquals(Collections.singletonList("中文 text"), breakLines("中文 text", 10000));
+        assertEquals(Collections.singletonList(""), breakLines("", 1000));
+    }
+
+    @Test
+    public void cjkBreaksBetweenAnyCharacters() {
+        assertEquals(Arrays.asList("一二", "三四", "五"), breakLines("一二三四五", 2000));
+    }
+
+    @Test
+    public void closingPunctuationDoesNotStartLine() {
+        assertEquals(Arrays.asList("一", "二。", "三"), breakLines("一二。三", 2000));
+        assertEquals(Arrays.asList("一", "二）", "三"), breakLines("一二）三", 2000));
+    }
+
+    @Test
+    public void openingPunctuationDoesNotEndLine() {
+        assertEquals(Arrays.asList("一", "（二"), breakLines("一（二", 2000));
+        assertEquals(Arrays.asList("一", "“二"), breakLines("一“二", 2000));
+    }
+
+    @Test
+    public void latinBreaksAtSpaces() {
+        assertEquals(Arrays.asList("ab", "cd"), breakLines("ab   cd", 1000));
+        assertEquals(Arrays.asList("中文", "abc"), breakLines("中文abc", 2500));
+    }
+
+    @Test
+    public void overLongWordBreaksBetweenCharacters() {
+        assertEquals(Arrays.asList("aaa", "aaa", "aa"), breakLines("aaaaaaaa", 3 * 417));
+        assertEquals(Arrays.asList("a", "aaa", "aaa", "a"), breakLines("a aaaaaaa", 3 * 417));
+    }
+
+    @Test
+    public void carriedOverWordIsSplitAgainWhenItStillOverflows() throws IOException {
+        // Courier中每个字符宽600，没有的汉字按缺字宽度算
+        GlyphWidths courier = GlyphWidths.of(PdfFontFactory.createFont(StandardFonts.COURIER).getFontProgram());
+        float maxWidth = courier.getWidth("一") + 4 * 600;
+        List<String> lines = LineBreaker.breakLines(courier, "一abcdefgh", maxWidth);
+        for (String line : lines) {
+            assertTrue(line, courier.getWidth(line) <= maxWidth);
+        }
+        assertEquals("一abcdefgh", String.join("", lines));
+    }
+
+    @Test
+    public void characterWiderThanLineStillTakesOneLine() {
+        assertEquals(Arrays.asList("一", "二"), breakLines("一二", 500));
+    }
+
+    @Test
+    public void allLineSeparatorsForceBreak() {
+        assertEquals(Arrays.asList("a", "b"), breakLines("a\nb", 10000));
+        assertEquals(Arrays.asList("a", "b"), breakLines("a\r\nb", 10000));
+        assertEquals(Arrays.asList("a", "b"), breakLines("a\rb", 10000));
+        assertEquals(Arrays.asList("a", "", "b"), breakLines("a\r\n\r\nb", 10000));
+        assertEquals(Arrays.asList("a", "", "b"), breakLines("a\r\rb", 10000));
+        assertEquals(Arrays.asList("a", ""), breakLines("a\r\n", 10000));
+    }
+
+    @Test
+    public void lineSeparatorsHaveNoWidth() {
+        // 两个字正好放满一行，换行符不会把第二个字挤到下一行
+        assertEquals(Arrays.asList("一二", "三"), breakLines("一二\r\n三", 2000));
+        assertEquals(Arrays.asList("一二", "三"), breakLines("一二\r三", 2000));
+    }
+
+    private static List<String> breakLines(String text, float maxWidth) {
+        return LineBreaker.breakLines(widths, text, maxWidth);
+    }
+}
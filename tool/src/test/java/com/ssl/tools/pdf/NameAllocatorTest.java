@@ -0,0 +1,70 @@
+package com.ssl.tools.pdf;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class NameAllocatorTest {
+
+    @Test
+    public void firstOccurrenceKeepsName() {
+        NameAllocator names = new NameAllocator();
+        assertEquals("a", names.allocate("a"));
+        assertEquals("b", names.allocate("b"));
+    }
+
+    @Test
+    public void duplicatesGetIncreasingSuffix() {
+        NameAllocator names = new NameAllocator();
+        assertEquals(Arrays.asList("a", "a#0", "a#1", "b", "a#2"),
+                allocate(names, "a", "a", "a", "b", "a"));
+    }
+
+    @Test
+    public void suppliedSuffixDoesNotCollideWithGenerated() {
+        NameAllocator names = new NameAllocator();
+        // 调用方自己传入的a#0先占用了名称，生成的后缀跳过它
+        assertEquals(Arrays.asList("a#0", "a", "a#1", "a#0#0"),
+                allocate(names, "a#0", "a", "a", "a#0"));
+    }
+
+    @Test
+    public void generatedNameCanBeSuppliedLater() {
+        NameAllocator names = new NameAllocator();
+        assertEquals(Arrays.asList("a", "a#0", "a#0#0", "a#1"),
+                allocate(names, "a", "a", "a#0", "a"));
+    }
+
+    @Test
+    public void nullNameIsAllocatedOnce() {
+        NameAllocator names = new NameAllocator();
+        assertNull(names.allocate(null));
+        assertEquals("null#0", names.allocate(null));
+    }
+
+    @Test
+    public void namesAreUniqueAndDeterministic() {
+        String[] input = new String[5000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = "f" + (i % 7);
+        }
+        List<String> first = allocate(new NameAllocator(input.length), input);
+        List<String> second = allocate(new NameAllocator(), input);
+        assertEquals(first, second);
+        assertEquals(input.length, new HashSet<>(first).size());
+    }
+
+    private static List<String> allocate(NameAllocator names, String... input) {
+        List<String> result = new ArrayList<>();
+        for (String name : input) {
+            result.add(names.allocate(name));
+        }
+        return result;
+    }
+}
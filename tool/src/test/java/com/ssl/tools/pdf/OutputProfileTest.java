@@ -0,0 +1,69 @@
+package com.ssl.tools.pdf;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OutputProfileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File template;
+
+    @Before
+    public void createTemplate() throws IOException {
+        template = TestPdfs.createTemplate(folder.newFile("template.pdf"), 2);
+    }
+
+    @Test
+    public void compactWritesObjectStreams() throws IOException {
+        String compact = stamp(OutputProfile.COMPACT);
+        assertTrue(compact.contains("/ObjStm"));
+        assertFalse(compact.contains("\nxref\n"));
+
+        String original = stamp(OutputProfile.DEFAULT);
+        assertFalse(original.contains("/ObjStm"));
+        assertTrue(original.contains("\nxref\n"));
+        assertTrue(compact.length() < original.length());
+    }
+
+    @Test
+    public void compactAppliesToMergedOutput() throws IOException {
+        String compact = merge(OutputProfile.COMPACT);
+        String original = merge(OutputProfile.DEFAULT);
+        assertTrue(compact.contains("/ObjStm"));
+        assertTrue(compact.length() < original.length());
+    }
+
+    private String stamp(OutputProfile profile) throws IOException {
+        File out = folder.newFile();
+        StampOptions options = new StampOptions();
+        options.setOutputProfile(profile);
+        PdfUtil.createText(template, out.getPath(), TestPdfs.fields(), options);
+        return read(out);
+    }
+
+    private String merge(OutputProfile profile) throws IOException {
+        File out = folder.newFile();
+        StampOptions options = new StampOptions();
+        options.setOutputProfile(profile);
+        PdfUtil.merge(Arrays.asList(new StampPart(template, TestPdfs.fields()), new StampPart(template, TestPdfs.fields())),
+                out.getPath(), options);
+        return read(out);
+    }
+
+    private static String read(File pdf) throws IOException {
+        return new String(Files.readAllBytes(pdf.toPath()), StandardCharsets.ISO_8859_1);
+    }
+}
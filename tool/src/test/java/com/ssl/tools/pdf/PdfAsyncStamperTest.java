@@ -0,0 +1,190 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.ssl.tools.PDFModel;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PdfAsyncStamperTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File template;
+
+    @Before
+    public void createTemplate() throws IOException {
+        template = TestPdfs.createTemplate(folder.newFile("template.pdf"), 2);
+    }
+
+    @Test
+    public void stampsOnSuppliedExecutor() throws Exception {
+        AtomicInteger executed = new AtomicInteger();
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Executor executor = command -> {
+            executed.incrementAndGet();
+            executorService.execute(command);
+        };
+        File out = new File(folder.getRoot(), "out.pdf");
+        try (PdfAsyncStamper stamper = new PdfAsyncStamper(executor)) {
+            StampResult result = stamper.stamp(new StampJob(template, out.getPath(), TestPdfs.fields())).get();
+            assertTrue(result.isSuccess());
+        } finally {
+            // 外部传入的执行器不随stamper关闭
+            assertFalse(executorService.isShutdown());
+            executorService.shutdown();
+        }
+        assertEquals(1, executed.get());
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            TestPdfs.assertFields(pdfDocument);
+        }
+    }
+
+    @Test
+    public void failureCompletesNormally() throws Exception {
+        File out = new File(folder.getRoot(), "out.pdf");
+        List<PDFModel> fields = TestPdfs.list(TestPdfs.field(3, "third", "x"));
+        try (PdfAsyncStamper stamper = new PdfAsyncStamper()) {
+            StampResult result = stamper.stamp(new StampJob(template, out.getPath(), fields)).get();
+            assertFalse(result.isSuccess());
+            assertTrue(result.getError() instanceof IllegalArgumentException);
+        }
+        assertFalse(out.exists());
+    }
+
+    @Test
+    public void cancelInterruptsRunningJobAndDeletesOutput() throws Exception {
+        BlockingFields fields = new BlockingFields(TestPdfs.fields());
+        TrackingExecutor executor = new TrackingExecutor();
+        File out = new File(folder.getRoot(), "out.pdf");
+        try (PdfAsyncStamper stamper = new PdfAsyncStamper(executor)) {
+            CompletableFuture<StampResult> future = stamper.stamp(new StampJob(template, out.getPath(), fields));
+            assertTrue(fields.started.await(10, TimeUnit.SECONDS));
+            assertTrue(future.cancel(true));
+            assertTrue(executor.finished.await(10, TimeUnit.SECONDS));
+            try {
+                future.get();
+                fail("cancelled");
+            } catch (CancellationException e) {
+                // 已取消
+            }
+        }
+        assertFalse(out.exists());
+        // 中断标记已清除，线程可以继续使用
+        assertFalse(executor.interruptedAfterRun.get());
+    }
+
+    @Test
+    public void timeoutCompletesWithTimeoutException() throws Exception {
+        BlockingFields fields = new BlockingFields(TestPdfs.fields());
+        TrackingExecutor executor = new TrackingExecutor();
+        File out = new File(folder.getRoot(), "out.pdf");
+        try (PdfAsyncStamper stamper = new PdfAsyncStamper(executor)) {
+            CompletableFuture<StampResult> future = stamper.stamp(new StampJob(template, out.getPath(), fields),
+                    50, TimeUnit.MILLISECONDS);
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("timed out");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof TimeoutException);
+            }
+            // 超时后执行中的任务被中断，不会一直阻塞
+            assertTrue(executor.finished.await(10, TimeUnit.SECONDS));
+        }
+        assertFalse(out.exists());
+        assertFalse(executor.interruptedAfterRun.get());
+    }
+
+    @Test
+    public void cancelledWhileQueuedNeverRuns() throws Exception {
+        List<Runnable> queue = new ArrayList<>();
+        File out = new File(folder.getRoot(), "out.pdf");
+        try (PdfAsyncStamper stamper = new PdfAsyncStamper(queue::add)) {
+            CompletableFuture<StampResult> future = stamper.stamp(new StampJob(template, out.getPath(), TestPdfs.fields()));
+            assertTrue(future.cancel(false));
+            queue.get(0).run();
+            assertTrue(future.isCancelled());
+        }
+        assertFalse(out.exists());
+    }
+
+    @Test
+    public void rejectedJobCompletesExceptionally() throws Exception {
+        Executor rejecting = command -> {
+            throw new RejectedExecutionException("full");
+        };
+        try (PdfAsyncStamper stamper = new PdfAsyncStamper(rejecting)) {
+            stamper.stamp(new StampJob(template, folder.newFile().getPath(), TestPdfs.fields())).get();
+            fail("rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    /**
+     * 开始读取表单域时阻塞，直到线程被中断；让任务停在执行中
+     */
+    private static class BlockingFields extends ArrayList<PDFModel> {
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private BlockingFields(List<PDFModel> fields) {
+            super(fields);
+        }
+
+        @Override
+        public Iterator<PDFModel> iterator() {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                // 保留中断标记，后续盖章在处理页面前停止
+                Thread.currentThread().interrupt();
+            }
+            return super.iterator();
+        }
+    }
+
+    /**
+     * 每个任务一个线程，记录任务结束时线程的中断标记
+     */
+    private static class TrackingExecutor implements Executor {
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final AtomicBoolean interruptedAfterRun = new AtomicBoolean();
+
+        @Override
+        public void execute(Runnable command) {
+            Thread thread = new Thread(() -> {
+                command.run();
+                interruptedAfterRun.set(Thread.currentThread().isInterrupted());
+                finished.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+}
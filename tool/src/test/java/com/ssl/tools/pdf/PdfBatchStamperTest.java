@@ -0,0 +1,82 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PdfBatchStamperTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File template;
+
+    @Before
+    public void createTemplate() throws IOException {
+        template = TestPdfs.createTemplate(folder.newFile("template.pdf"), 2);
+    }
+
+    @Test
+    public void failedJobsDoNotAffectOthers() throws Exception {
+        List<StampJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            File out = new File(folder.getRoot(), i + ".pdf");
+            if (i % 4 == 1) {
+                // 页码超出范围
+                jobs.add(new StampJob(template, out.getPath(), TestPdfs.list(TestPdfs.field(3, "third", "x"))));
+            } else if (i % 4 == 3) {
+                jobs.add(new StampJob(new File(folder.getRoot(), "missing.pdf"), out.getPath(), TestPdfs.fields()));
+            } else {
+                jobs.add(new StampJob(template, out.getPath(), TestPdfs.fields()));
+            }
+        }
+
+        BatchReport report;
+        try (PdfBatchStamper stamper = new PdfBatchStamper(3, 1)) {
+            report = stamper.stamp(jobs);
+        }
+        assertEquals(6, report.getSuccessCount());
+        assertEquals(6, report.getFailureCount());
+        assertEquals(6, report.getFailures().size());
+        assertTrue(report.toString(), report.toString().contains("success=6"));
+        // 结果与提交顺序一致
+        for (int i = 0; i < jobs.size(); i++) {
+            StampResult result = report.getResults().get(i);
+            assertSame(jobs.get(i), result.getJob());
+            File out = new File(result.getJob().getSavePath());
+            if (i % 2 == 0) {
+                assertTrue(result.isSuccess());
+                try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+                    TestPdfs.assertFields(pdfDocument);
+                }
+            } else {
+                assertFalse(result.isSuccess());
+                Class<?> expected = i % 4 == 1 ? IllegalArgumentException.class : IOException.class;
+                assertTrue(String.valueOf(result.getError()), expected.isInstance(result.getError()));
+                // 失败的任务不留下文件
+                assertFalse(out.exists());
+            }
+        }
+    }
+
+    @Test
+    public void emptyBatch() throws Exception {
+        try (PdfBatchStamper stamper = new PdfBatchStamper(1, 0)) {
+            BatchReport report = stamper.stamp(new ArrayList<>());
+            assertTrue(report.getResults().isEmpty());
+            assertEquals(0, report.getFailureCount());
+        }
+    }
+}
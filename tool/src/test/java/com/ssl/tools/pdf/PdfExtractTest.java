@@ -0,0 +1,112 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.ssl.tools.PDFModel;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class PdfExtractTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File template;
+    /**
+     * 第1、3、5页各一个表单域，值为页码
+     */
+    private List<PDFModel> fields;
+
+    @Before
+    public void createTemplate() throws IOException {
+        template = TestPdfs.createTemplate(folder.newFile("template.pdf"), 5);
+        fields = TestPdfs.list(TestPdfs.field(1, "p", "1"), TestPdfs.field(3, "p", "3"), TestPdfs.field(5, "p", "5"));
+    }
+
+    @Test
+    public void extractRenumbersPagesAndDropsOtherFields() throws IOException {
+        File out = folder.newFile("extract.pdf");
+        PdfUtil.extract(template, out.getPath(), fields, 2, 4, new StampOptions());
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            assertEquals(3, pdfDocument.getNumberOfPages());
+            Map<String, PdfFormField> formFields = PdfAcroForm.getAcroForm(pdfDocument, false).getFormFields();
+            assertEquals(1, formFields.size());
+            // 源文件第3页是输出的第2页，名称只在输出文件范围内编号
+            assertEquals("3", formFields.get("p").getValueAsString());
+            assertEquals(1, pdfDocument.getPage(2).getAnnotations().size());
+        }
+    }
+
+    @Test
+    public void extractSinglePage() throws IOException {
+        File out = folder.newFile("extract.pdf");
+        PdfUtil.extract(template, out.getPath(), fields, 5, 5, new StampOptions());
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            assertEquals(1, pdfDocument.getNumberOfPages());
+            assertEquals("5", PdfAcroForm.getAcroForm(pdfDocument, false).getField("p").getValueAsString());
+        }
+    }
+
+    @Test
+    public void extractRejectsRangesOutsideDocument() throws IOException {
+        assertInvalidRange(0, 2);
+        assertInvalidRange(3, 2);
+        assertInvalidRange(4, 6);
+    }
+
+    @Test
+    public void splitKeepsFieldsWithTheirPages() throws IOException {
+        List<String> paths = PdfUtil.split(template, fields, 2, i -> new File(folder.getRoot(), "part" + i + ".pdf").getPath(),
+                new StampOptions());
+        assertEquals(3, paths.size());
+        // 最后一个文件不足2页
+        int[] pages = {2, 2, 1};
+        String[] values = {"1", "3", "5"};
+        for (int i = 0; i < paths.size(); i++) {
+            assertEquals(new File(folder.getRoot(), "part" + i + ".pdf").getPath(), paths.get(i));
+            try (PdfDocument pdfDocument = TestPdfs.open(new File(paths.get(i)))) {
+                assertEquals(pages[i], pdfDocument.getNumberOfPages());
+                assertEquals(values[i], PdfAcroForm.getAcroForm(pdfDocument, false).getField("p").getValueAsString());
+                assertEquals(1, pdfDocument.getPage(1).getAnnotations().size());
+                if (pages[i] == 2) {
+                    assertEquals(0, pdfDocument.getPage(2).getAnnotations().size());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void splitRejectsNonPositivePageCount() throws IOException {
+        try {
+            PdfUtil.split(template, fields, 0, i -> folder.getRoot() + "/part" + i + ".pdf", new StampOptions());
+            fail("pagesPerFile must be positive");
+        } catch (IllegalArgumentException e) {
+            assertEquals("pagesPerFile must be positive", e.getMessage());
+        }
+        assertFalse(new File(folder.getRoot(), "part0.pdf").exists());
+    }
+
+    private void assertInvalidRange(int fromPage, int toPage) throws IOException {
+        File out = new File(folder.getRoot(), "invalid.pdf");
+        try {
+            PdfUtil.extract(template, out.getPath(), fields, fromPage, toPage, new StampOptions());
+            fail(fromPage + "-" + toPage);
+        } catch (IllegalArgumentException e) {
+            assertEquals("page range " + fromPage + "-" + toPage + " out of range, document has 5 pages", e.getMessage());
+        }
+        // 范围检查在创建输出文件之前
+        assertFalse(out.exists());
+    }
+}
@@ -0,0 +1,108 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.ssl.tools.PDFModel;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PdfFontRegistryTest {
+
+    /**
+     * src/test/resources/font下的测试字体
+     */
+    private static final String TEST_FONT = "DejaVuSansMono-ASCII.ttf";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void clear() {
+        PdfFontRegistry.clear();
+    }
+
+    @Test
+    public void concurrentMissesParseOnce() throws Exception {
+        PdfFontRegistry.clear();
+        long misses = PdfFontRegistry.getCacheMisses();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<FontProgram>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit((Callable<FontProgram>) () -> {
+                    start.await();
+                    return PdfFontRegistry.getFontProgram(null);
+                }));
+            }
+            start.countDown();
+            FontProgram first = futures.get(0).get();
+            for (Future<FontProgram> future : futures) {
+                assertSame(first, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(misses + 1, PdfFontRegistry.getCacheMisses());
+    }
+
+    @Test
+    public void fontFolderFontIsEmbedded() throws IOException {
+        assertEquals(TEST_FONT, PdfFontRegistry.resolve(TEST_FONT));
+        // 文件名忽略大小写
+        assertEquals(TEST_FONT, PdfFontRegistry.resolve(TEST_FONT.toUpperCase()));
+        assertTrue(PdfFontRegistry.createFont(TEST_FONT).isEmbedded());
+    }
+
+    @Test
+    public void subsetIsSmallerThanFullFont() throws IOException {
+        long fontSize = FontCatalog.find(TEST_FONT).size;
+        int subset = embeddedFontLength(true);
+        int full = embeddedFontLength(false);
+        assertEquals(fontSize, full);
+        assertTrue(subset + " >= " + full, subset < full);
+    }
+
+    /**
+     * 用测试字体盖章，返回输出文件中嵌入的字体文件大小
+     */
+    private int embeddedFontLength(boolean fontSubset) throws IOException {
+        File template = TestPdfs.createTemplate(folder.newFile(), 1);
+        File out = folder.newFile();
+        PDFModel field = TestPdfs.field(1, "name", "Hello");
+        field.setFont(TEST_FONT);
+        StampOptions options = new StampOptions();
+        options.setFontSubset(fontSubset);
+        PdfUtil.createText(template, out.getPath(), TestPdfs.list(field), options);
+
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            for (int i = 1; i < pdfDocument.getNumberOfPdfObjects(); i++) {
+                PdfObject object = pdfDocument.getPdfObject(i);
+                if (object instanceof PdfDictionary && ((PdfDictionary) object).containsKey(PdfName.FontFile2)) {
+                    return ((PdfDictionary) object).getAsStream(PdfName.FontFile2).getBytes().length;
+                }
+            }
+        }
+        throw new AssertionError("no embedded font in " + out);
+    }
+}
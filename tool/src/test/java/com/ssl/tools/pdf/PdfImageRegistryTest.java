@@ -0,0 +1,102 @@
+package com.ssl.tools.pdf;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class PdfImageRegistryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File allowed;
+    private File seal;
+    private File outside;
+
+    @Before
+    public void createImages() throws IOException {
+        allowed = folder.newFolder("seal");
+        seal = new File(allowed, "seal.png");
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", seal);
+        outside = folder.newFile("outside.png");
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", outside);
+        PdfImageRegistry.setAllowedLocations(allowed.getPath());
+    }
+
+    @After
+    public void reset() throws IOException {
+        PdfImageRegistry.setAllowedLocations();
+        PdfImageRegistry.clear();
+    }
+
+    @Test
+    public void allowedImageIsDecodedOnce() throws IOException {
+        long misses = PdfImageRegistry.getCacheMisses();
+        assertSame(PdfImageRegistry.getImageData(seal.getPath()), PdfImageRegistry.getImageData(seal.getPath()));
+        assertSame(PdfImageRegistry.getImageData(seal.getPath()), PdfImageRegistry.getImageData(seal.getPath()));
+        assertEquals(misses + 1, PdfImageRegistry.getCacheMisses());
+        // file: URL指向允许的目录时同样可以读取
+        assertEquals(4, PdfImageRegistry.getImageData(seal.toURI().toString()).getWidth(), 0);
+    }
+
+    @Test
+    public void nothingIsAllowedByDefault() throws IOException {
+        PdfImageRegistry.setAllowedLocations();
+        assertNotAllowed(seal.getPath());
+        assertNotAllowed("classpath:stdlib-3.4.pdf");
+    }
+
+    @Test
+    public void filesOutsideAllowedDirectoriesAreRejected() {
+        assertNotAllowed(outside.getPath());
+        assertNotAllowed(outside.toURI().toString());
+        assertNotAllowed(new File(allowed, "../outside.png").getPath());
+        // 目录名只是前缀相同
+        assertNotAllowed(allowed.getPath() + "-other/seal.png");
+        // 不存在的文件也不会去读取
+        assertNotAllowed("/etc/no-such-file.png");
+    }
+
+    @Test
+    public void revokedLocationIsRejectedEvenWhenCached() throws IOException {
+        PdfImageRegistry.getImageData(seal.getPath());
+        PdfImageRegistry.setAllowedLocations();
+        assertNotAllowed(seal.getPath());
+    }
+
+    @Test
+    public void urlsNeedAllowedPrefix() throws IOException {
+        assertNotAllowed("http://127.0.0.1:1/seal.png");
+        assertNotAllowed("https://static.example.com/seal/a.png");
+
+        PdfImageRegistry.setAllowedLocations("https://static.example.com/seal", "classpath:seal/");
+        assertNotAllowed("https://static.example.com/seal/../admin.png");
+        assertNotAllowed("https://static.example.com/sealed.png");
+        assertNotAllowed("https://static.example.com.evil.com/seal/a.png");
+        assertNotAllowed("http://static.example.com/seal/a.png");
+        assertNotAllowed("classpath:seal/../stdlib-3.4.pdf");
+        assertNotAllowed("classpath:stdlib-3.4.pdf");
+    }
+
+    private static void assertNotAllowed(String image) {
+        try {
+            PdfImageRegistry.getImageData(image);
+            fail(image + " should not be allowed");
+        } catch (IllegalArgumentException e) {
+            // 不在允许的位置
+        } catch (IOException e) {
+            fail(image + " should be rejected before it is read: " + e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.annot.PdfAnnotation;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class PdfMergeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File twoPages;
+    private File onePage;
+
+    @Before
+    public void createTemplates() throws IOException {
+        twoPages = TestPdfs.createTemplate(folder.newFile("two.pdf"), 2);
+        onePage = TestPdfs.createTemplate(folder.newFile("one.pdf"), 1);
+    }
+
+    @Test
+    public void pagesAreOffsetAndNamesAreUniqueAcrossParts() throws IOException {
+        File out = folder.newFile("merged.pdf");
+        PdfUtil.merge(Arrays.asList(
+                new StampPart(twoPages, TestPdfs.fields()),
+                new StampPart(onePage, TestPdfs.list(TestPdfs.field(1, "first", "four"))),
+                new StampPart(twoPages, TestPdfs.list(TestPdfs.field(2, "second", "five")))), out.getPath());
+
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            assertEquals(5, pdfDocument.getNumberOfPages());
+            Map<String, PdfFormField> fields = PdfAcroForm.getAcroForm(pdfDocument, false).getFormFields();
+            assertEquals(5, fields.size());
+            // 第二、三个模板的页码加上前面模板的页数
+            assertPage(pdfDocument, fields, "first", "one", 1);
+            assertPage(pdfDocument, fields, "second", "two", 2);
+            assertPage(pdfDocument, fields, "second#0", "three", 2);
+            // 重名编号在整个文档范围内分配
+            assertPage(pdfDocument, fields, "first#0", "four", 3);
+            assertPage(pdfDocument, fields, "second#1", "five", 5);
+            assertEquals(0, pdfDocument.getPage(4).getAnnotations().size());
+        }
+    }
+
+    @Test
+    public void pageOutOfRangeOfItsPart() throws IOException {
+        File out = folder.newFile("merged.pdf");
+        try {
+            // 合并后共3页，但第二个模板只有1页
+            PdfUtil.merge(Arrays.asList(new StampPart(twoPages, TestPdfs.fields()),
+                    new StampPart(onePage, TestPdfs.list(TestPdfs.field(2, "x", "y")))), out.getPath());
+            fail("page 2 is out of range of " + onePage);
+        } catch (IllegalArgumentException e) {
+            assertEquals("page 2 out of range, " + onePage + " has 1 pages", e.getMessage());
+        }
+    }
+
+    @Test
+    public void mergeWithoutFields() throws IOException {
+        File out = folder.newFile("merged.pdf");
+        PdfUtil.merge(Arrays.asList(new StampPart(onePage, TestPdfs.list()), new StampPart(twoPages, TestPdfs.list())),
+                out.getPath());
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            assertEquals(3, pdfDocument.getNumberOfPages());
+            assertFalse(pdfDocument.getPage(1).getAnnotations().iterator().hasNext());
+        }
+    }
+
+    private static void assertPage(PdfDocument pdfDocument, Map<String, PdfFormField> fields, String name, String value, int page) {
+        PdfFormField field = fields.get(name);
+        assertEquals(name, value, field.getValueAsString());
+        PdfAnnotation widget = field.getWidgets().get(0);
+        assertEquals(name, page, pdfDocument.getPageNumber(widget.getPage()));
+    }
+}
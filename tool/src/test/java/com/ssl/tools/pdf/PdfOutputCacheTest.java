@@ -0,0 +1,168 @@
+package com.ssl.tools.pdf;
+
+import com.ssl.tools.PDFModel;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PdfOutputCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File template;
+    private File directory;
+
+    @Before
+    public void createTemplate() throws IOException {
+        template = TestPdfs.createTemplate(folder.newFile("template.pdf"), 2);
+        directory = folder.newFolder("cache");
+    }
+
+    @Test
+    public void equalRequestsHit() throws IOException {
+        PdfOutputCache cache = new PdfOutputCache(directory, Long.MAX_VALUE);
+        File first = folder.newFile();
+        File second = folder.newFile();
+        assertFalse(cache.createText(template, first.getPath(), fields(), new StampOptions()));
+        // 内容相同的另一组对象
+        assertTrue(cache.createText(template, second.getPath(), fields(), new StampOptions()));
+        assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+    }
+
+    @Test
+    public void everyFieldAttributeIsPartOfKey() throws IOException {
+        List<Consumer<PDFModel>> changes = new ArrayList<>();
+        changes.add(model -> model.setPage(2));
+        changes.add(model -> model.setPositionX(11));
+        changes.add(model -> model.setPositionY(21));
+        changes.add(model -> model.setWidth(101));
+        changes.add(model -> model.setHeight(31));
+        changes.add(model -> model.setFont("other.ttf"));
+        changes.add(model -> model.setFontSize(13));
+        changes.add(model -> model.setAutoFontSize(true));
+        changes.add(model -> model.setMultiline(true));
+        changes.add(model -> model.setName("other"));
+        changes.add(model -> model.setValue("other"));
+        PdfOutputCache cache = new PdfOutputCache(directory, Long.MAX_VALUE);
+        cache.createText(template, folder.newFile().getPath(), fields(), new StampOptions());
+        for (Consumer<PDFModel> change : changes) {
+            List<PDFModel> list = fields();
+            change.accept(list.get(0));
+            assertFalse(cache.createText(template, folder.newFile().getPath(), list, new StampOptions()));
+            assertTrue(cache.createText(template, folder.newFile().getPath(), list, new StampOptions()));
+        }
+    }
+
+    @Test
+    public void adjacentStringsDoNotRunTogether() throws IOException {
+        PdfOutputCache cache = new PdfOutputCache(directory, Long.MAX_VALUE);
+        assertFalse(cache.createText(template, folder.newFile().getPath(), field("ab", "c"), new StampOptions()));
+        assertFalse(cache.createText(template, folder.newFile().getPath(), field("a", "bc"), new StampOptions()));
+        assertFalse(cache.createText(template, folder.newFile().getPath(), field("a", null), new StampOptions()));
+        assertFalse(cache.createText(template, folder.newFile().getPath(), field("a", ""), new StampOptions()));
+    }
+
+    @Test
+    public void fieldOrderAndOptionsArePartOfKey() throws IOException {
+        PdfOutputCache cache = new PdfOutputCache(directory, Long.MAX_VALUE);
+        List<PDFModel> list = fields();
+        list.addAll(field("b", "2"));
+        cache.createText(template, folder.newFile().getPath(), list, new StampOptions());
+
+        List<PDFModel> reversed = new ArrayList<>(list);
+        reversed.add(reversed.remove(0));
+        assertFalse(cache.createText(template, folder.newFile().getPath(), reversed, new StampOptions()));
+
+        StampOptions flatten = new StampOptions();
+        flatten.setFlatten(true);
+        assertFalse(cache.createText(template, folder.newFile().getPath(), list, flatten));
+        // 不影响输出的选项不参与key
+        StampOptions flushPages = new StampOptions();
+        flushPages.setFlushPages(true);
+        assertTrue(cache.createText(template, folder.newFile().getPath(), list, flushPages));
+    }
+
+    @Test
+    public void templateIsIdentifiedByContent() throws IOException {
+        PdfOutputCache cache = new PdfOutputCache(directory, Long.MAX_VALUE);
+        cache.createText(template, folder.newFile().getPath(), fields(), new StampOptions());
+        File copy = new File(folder.getRoot(), "copy.pdf");
+        Files.copy(template.toPath(), copy.toPath());
+        assertTrue(cache.createText(copy, folder.newFile().getPath(), fields(), new StampOptions()));
+    }
+
+    @Test
+    public void replacedTemplateIsRehashed() throws IOException {
+        PdfOutputCache cache = new PdfOutputCache(directory, Long.MAX_VALUE);
+        cache.createText(template, folder.newFile().getPath(), fields(), new StampOptions());
+
+        // 大小和修改时间都相同，只改文件头注释中的一个字节，写新文件后改名替换
+        byte[] bytes = Files.readAllBytes(template.toPath());
+        bytes[10] ^= 1;
+        File replacement = new File(folder.getRoot(), "replacement.pdf");
+        Files.write(replacement.toPath(), bytes);
+        Files.setLastModifiedTime(replacement.toPath(), Files.getLastModifiedTime(template.toPath()));
+        Files.move(replacement.toPath(), template.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        assertFalse(cache.createText(template, folder.newFile().getPath(), fields(), new StampOptions()));
+    }
+
+    @Test
+    public void evictionKeepsTotalBytesInSync() throws IOException {
+        File first = folder.newFile();
+        new PdfOutputCache(folder.newFolder(), Long.MAX_VALUE).createText(template, first.getPath(), fields(), new StampOptions());
+        // 大约能放下三个结果
+        PdfOutputCache cache = new PdfOutputCache(directory, first.length() * 3 + first.length() / 2);
+        for (int i = 0; i < 8; i++) {
+            cache.createText(template, folder.newFile().getPath(), field("f", String.valueOf(i)), new StampOptions());
+            assertEquals(directorySize(), cache.getTotalBytes());
+            assertTrue(cache.getTotalBytes() <= first.length() * 4);
+        }
+        cache.clear();
+        assertEquals(0, cache.getTotalBytes());
+        assertEquals(0, directorySize());
+    }
+
+    @Test
+    public void restartReusesResultsAndSweepsTemporaryFiles() throws IOException {
+        new PdfOutputCache(directory, Long.MAX_VALUE).createText(template, folder.newFile().getPath(), fields(), new StampOptions());
+        File stale = new File(directory, "abc.0.tmp");
+        assertTrue(stale.createNewFile());
+
+        PdfOutputCache cache = new PdfOutputCache(directory, Long.MAX_VALUE);
+        assertFalse(stale.exists());
+        assertEquals(directorySize(), cache.getTotalBytes());
+        assertTrue(cache.createText(template, folder.newFile().getPath(), fields(), new StampOptions()));
+    }
+
+    private long directorySize() {
+        long size = 0;
+        for (File file : directory.listFiles()) {
+            size += file.length();
+        }
+        return size;
+    }
+
+    private static List<PDFModel> fields() {
+        return field("name", "value");
+    }
+
+    private static List<PDFModel> field(String name, String value) {
+        return TestPdfs.list(TestPdfs.field(1, name, value));
+    }
+}
@@ -0,0 +1,171 @@
+package com.ssl.tools.pdf;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PdfStampMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File template;
+    private final List<StampListener> registered = new ArrayList<>();
+
+    @Before
+    public void createTemplate() throws IOException {
+        template = TestPdfs.createTemplate(folder.newFile("template.pdf"), 2);
+    }
+
+    @After
+    public void removeListeners() {
+        for (StampListener listener : registered) {
+            PdfStampMetrics.removeListener(listener);
+        }
+    }
+
+    @Test
+    public void oneEventPerOutput() throws Exception {
+        Events events = register(new Events());
+        File out = folder.newFile("out.pdf");
+        PdfUtil.createText(template, out.getPath(), TestPdfs.fields());
+        assertEquals(1, events.size());
+        StampEvent event = events.get(0);
+        assertEquals(out.getPath(), event.getTarget());
+        assertEquals(3, event.getFields());
+        assertEquals(template.length(), event.getBytesRead());
+        assertEquals(out.length(), event.getBytesWritten());
+        assertTrue(event.getTotalNanos() >= event.getOpenNanos() + event.getCloseNanos());
+
+        // 输出流没有保存路径
+        PdfUtil.createText(template, new ByteArrayOutputStream(), TestPdfs.fields());
+        assertNull(events.get(1).getTarget());
+
+        // 拆分时每个文件一个事件，模板只在第一个文件中计为读取
+        events.clear();
+        PdfUtil.split(template, TestPdfs.fields(), 1, i -> new File(folder.getRoot(), "part" + i + ".pdf").getPath(), new StampOptions());
+        assertEquals(2, events.size());
+        assertEquals(1, events.get(0).getFields());
+        assertEquals(2, events.get(1).getFields());
+        assertEquals(template.length(), events.get(0).getBytesRead());
+        assertEquals(0, events.get(1).getBytesRead());
+    }
+
+    @Test
+    public void failedStampPublishesNothing() throws Exception {
+        Events events = register(new Events());
+        try {
+            PdfUtil.createText(template, folder.newFile().getPath(), TestPdfs.list(TestPdfs.field(3, "third", "x")));
+            fail("page 3 is out of range");
+        } catch (IllegalArgumentException e) {
+            assertTrue(events.isEmpty());
+        }
+    }
+
+    @Test
+    public void failingListenerDoesNotAffectStampingOrOtherListeners() throws Exception {
+        register(event -> {
+            throw new IllegalStateException("listener failed");
+        });
+        Events events = register(new Events());
+        File out = folder.newFile();
+        PdfUtil.createText(template, out.getPath(), TestPdfs.fields());
+        assertEquals(1, events.size());
+        assertTrue(out.length() > 0);
+    }
+
+    @Test
+    public void statisticsAccumulate() throws Exception {
+        StampStatistics statistics = register(new StampStatistics());
+        for (int i = 0; i < 3; i++) {
+            PdfUtil.createText(template, folder.newFile().getPath(), TestPdfs.fields());
+        }
+        assertEquals(3, statistics.getCount());
+        assertEquals(9, statistics.getFields());
+        assertEquals(3 * template.length(), statistics.getBytesRead());
+        assertTrue(statistics.getFieldsPerSecond() > 0);
+        assertTrue(statistics.getFontCacheHitRate() > 0);
+    }
+
+    @Test
+    public void autoConfigurationRegistersListenerBeans() throws Exception {
+        AtomicReference<Events> events = new AtomicReference<>();
+        File first = folder.newFile();
+        File second = folder.newFile();
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(StampMetricsAutoConfiguration.class))
+                .withUserConfiguration(EventsConfiguration.class)
+                .run(context -> {
+                    events.set(context.getBean(Events.class));
+                    StampStatistics statistics = context.getBean(StampStatistics.class);
+                    PdfUtil.createText(template, first.getPath(), TestPdfs.fields());
+                    assertEquals(1, statistics.getCount());
+                    assertEquals(1, events.get().size());
+                });
+        // 容器关闭后摘除
+        PdfUtil.createText(template, second.getPath(), TestPdfs.fields());
+        assertEquals(1, events.get().size());
+    }
+
+    @Test
+    public void applicationStatisticsBeanTakesPrecedence() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(StampMetricsAutoConfiguration.class))
+                .withUserConfiguration(StatisticsConfiguration.class)
+                .run(context -> assertSame(StatisticsConfiguration.STATISTICS, context.getBean(StampStatistics.class)));
+    }
+
+    private <T extends StampListener> T register(T listener) {
+        PdfStampMetrics.addListener(listener);
+        registered.add(listener);
+        return listener;
+    }
+
+    @Configuration
+    static class EventsConfiguration {
+
+        @Bean
+        public Events events() {
+            return new Events();
+        }
+    }
+
+    @Configuration
+    static class StatisticsConfiguration {
+
+        static final StampStatistics STATISTICS = new StampStatistics();
+
+        @Bean
+        public StampStatistics applicationStatistics() {
+            return STATISTICS;
+        }
+    }
+
+    static class Events extends CopyOnWriteArrayList<StampEvent> implements StampListener {
+
+        @Override
+        public void onStamp(StampEvent event) {
+            add(event);
+        }
+    }
+}
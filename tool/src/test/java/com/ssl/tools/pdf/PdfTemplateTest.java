@@ -0,0 +1,133 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.forms.fields.PdfTextFormField;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class PdfTemplateTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File template;
+
+    @Before
+    public void createTemplate() throws IOException {
+        template = TestPdfs.createTemplate(folder.newFile("template.pdf"), 2);
+    }
+
+    @Test
+    public void stampsTemplateRepeatedly() throws IOException {
+        try (PdfTemplate pdfTemplate = PdfTemplate.compile(template)) {
+            assertEquals(2, pdfTemplate.getNumberOfPages());
+            // 第二次起复用池中的视图
+            for (int i = 0; i < 3; i++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                pdfTemplate.createText(out, TestPdfs.fields());
+                try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+                    TestPdfs.assertFields(pdfDocument);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mappedTemplateStampsToFile() throws IOException {
+        File out = folder.newFile("mapped.pdf");
+        try (PdfTemplate pdfTemplate = PdfTemplate.map(template)) {
+            pdfTemplate.createText(out.getPath(), TestPdfs.fields());
+        }
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            TestPdfs.assertFields(pdfDocument);
+        }
+    }
+
+    @Test
+    public void fillsExistingFieldsByName() throws IOException {
+        File form = createForm();
+        Map<String, String> values = new HashMap<>();
+        values.put("contract", "HT-001");
+        values.put("party.name", "甲方");
+        values.put("missing", "ignored");
+        try (PdfTemplate pdfTemplate = PdfTemplate.compile(form)) {
+            // 同一个模板填两次，第二次复用表单域索引
+            for (int i = 0; i < 2; i++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertEquals(2, pdfTemplate.fill(out, values));
+
+                // 追加模式：模板原样在前面
+                byte[] original = Files.readAllBytes(form.toPath());
+                assertArrayEquals(original, Arrays.copyOf(out.toByteArray(), original.length));
+                try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+                    Map<String, PdfFormField> fields = PdfAcroForm.getAcroForm(pdfDocument, false).getFormFields();
+                    assertEquals("HT-001", fields.get("contract").getValueAsString());
+                    assertEquals("甲方", fields.get("party.name").getValueAsString());
+                    assertEquals("", fields.get("untouched").getValueAsString());
+                    assertNotNull(fields.get("contract").getWidgets().get(0).getNormalAppearanceObject());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fillToFile() throws IOException {
+        File out = folder.newFile("filled.pdf");
+        try (PdfTemplate pdfTemplate = PdfTemplate.compile(createForm())) {
+            assertEquals(1, pdfTemplate.fill(out.getPath(), Collections.singletonMap("untouched", "now set")));
+        }
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            assertEquals("now set", PdfAcroForm.getAcroForm(pdfDocument, false).getField("untouched").getValueAsString());
+        }
+    }
+
+    @Test
+    public void fillWithOptions() throws IOException {
+        StampOptions options = new StampOptions();
+        options.setFontSubset(true);
+        try (PdfTemplate pdfTemplate = PdfTemplate.compile(createForm())) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(1, pdfTemplate.fill(out, Collections.singletonMap("contract", "HT-002"), options));
+            try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+                assertEquals("HT-002", PdfAcroForm.getAcroForm(pdfDocument, false).getField("contract").getValueAsString());
+            }
+        }
+    }
+
+    /**
+     * 模板中已有的表单域：contract、party.name（带层级）、untouched
+     */
+    private File createForm() throws IOException {
+        File form = folder.newFile("form.pdf");
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(form))) {
+            pdfDocument.addNewPage();
+            PdfAcroForm acroForm = PdfAcroForm.getAcroForm(pdfDocument, true);
+            acroForm.addField(PdfTextFormField.createText(pdfDocument, new Rectangle(50, 700, 200, 20), "contract", ""));
+            PdfFormField party = PdfFormField.createEmptyField(pdfDocument);
+            party.setFieldName("party");
+            party.addKid(PdfTextFormField.createText(pdfDocument, new Rectangle(50, 650, 200, 20), "name", ""));
+            acroForm.addField(party);
+            acroForm.addField(PdfTextFormField.createText(pdfDocument, new Rectangle(50, 600, 200, 20), "untouched", ""));
+        }
+        return form;
+    }
+}
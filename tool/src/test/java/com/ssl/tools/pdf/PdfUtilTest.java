@@ -0,0 +1,202 @@
+package com.ssl.tools.pdf;
+
+import com.alibaba.fastjson.JSON;
+import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.ssl.tools.PDFModel;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PdfUtilTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File template;
+
+    @Before
+    public void createTemplate() throws IOException {
+        template = TestPdfs.createTemplate(folder.newFile("template.pdf"), 2);
+    }
+
+    @Test
+    public void appendModeKeepsOriginalBytesAndAddsFields() throws IOException {
+        File out = folder.newFile("append.pdf");
+        StampOptions options = new StampOptions();
+        options.setAppendMode(true);
+        PdfUtil.createText(template, out.getPath(), TestPdfs.fields(), options);
+
+        byte[] original = Files.readAllBytes(template.toPath());
+        byte[] stamped = Files.readAllBytes(out.toPath());
+        // 原文件原样保留在开头，表单域追加在后面
+        assertArrayEquals(original, Arrays.copyOf(stamped, original.length));
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            TestPdfs.assertFields(pdfDocument);
+        }
+    }
+
+    @Test
+    public void appendModeWithMemoryMappedSource() throws IOException {
+        File out = folder.newFile("append-mapped.pdf");
+        StampOptions options = new StampOptions();
+        options.setAppendMode(true);
+        options.setMemoryMapped(true);
+        PdfUtil.createText(template, out.getPath(), TestPdfs.fields(), options);
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            TestPdfs.assertFields(pdfDocument);
+        }
+    }
+
+    @Test
+    public void flattenWritesValuesOntoPages() throws IOException {
+        File out = folder.newFile("flatten.pdf");
+        StampOptions options = new StampOptions();
+        options.setFlatten(true);
+        PdfUtil.createText(template, out.getPath(), TestPdfs.fields(), options);
+
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            assertEquals(2, pdfDocument.getNumberOfPages());
+            // 没有表单域和widget，值直接画在页面内容里
+            assertNull(PdfAcroForm.getAcroForm(pdfDocument, false));
+            assertTrue(pdfDocument.getPage(1).getAnnotations().isEmpty());
+            assertTrue(pdfDocument.getPage(2).getAnnotations().isEmpty());
+            assertEquals("one", PdfTextExtractor.getTextFromPage(pdfDocument.getPage(1)).trim());
+            String second = PdfTextExtractor.getTextFromPage(pdfDocument.getPage(2));
+            assertTrue(second, second.contains("two") && second.contains("three"));
+        }
+    }
+
+    @Test
+    public void streamsHonourOptions() throws IOException {
+        StampOptions options = new StampOptions();
+        options.setOutputProfile(OutputProfile.COMPACT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new FileInputStream(template)) {
+            PdfUtil.createText(in, out, TestPdfs.fields(), options);
+        }
+        assertTrue(new String(out.toByteArray(), StandardCharsets.ISO_8859_1).contains("/ObjStm"));
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            TestPdfs.assertFields(pdfDocument);
+        }
+
+        options.setOutputProfile(OutputProfile.DEFAULT);
+        options.setAppendMode(true);
+        out = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(template.toPath()));
+        PdfUtil.createText(buffer, Channels.newChannel(out), TestPdfs.fields(), options);
+        byte[] original = Files.readAllBytes(template.toPath());
+        assertArrayEquals(original, Arrays.copyOf(out.toByteArray(), original.length));
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            TestPdfs.assertFields(pdfDocument);
+        }
+    }
+
+    @Test
+    public void fileTemplateToStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfUtil.createText(template, out, TestPdfs.fields());
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            TestPdfs.assertFields(pdfDocument);
+        }
+
+        // 追加模式下原文件直接拷贝到通道
+        StampOptions options = new StampOptions();
+        options.setAppendMode(true);
+        options.setMemoryMapped(true);
+        out = new ByteArrayOutputStream();
+        PdfUtil.createText(template, Channels.newChannel(out), TestPdfs.fields(), options);
+        byte[] original = Files.readAllBytes(template.toPath());
+        assertArrayEquals(original, Arrays.copyOf(out.toByteArray(), original.length));
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            TestPdfs.assertFields(pdfDocument);
+        }
+    }
+
+    @Test
+    public void streamFailureLeavesCallerStreamOpen() throws IOException {
+        List<PDFModel> list = TestPdfs.list(TestPdfs.field(3, "third", "x"));
+        CloseCountingOutputStream out = new CloseCountingOutputStream();
+        try {
+            try (InputStream in = new FileInputStream(template)) {
+                PdfUtil.createText(in, out, list);
+            }
+            fail("page 3 is out of range");
+        } catch (IllegalArgumentException e) {
+            assertEquals("page 3 out of range, document has 2 pages", e.getMessage());
+        }
+        try {
+            PdfUtil.createText(template, out, list);
+            fail("page 3 is out of range");
+        } catch (IllegalArgumentException e) {
+            assertEquals("page 3 out of range, document has 2 pages", e.getMessage());
+        }
+        assertEquals(0, out.closed);
+    }
+
+    @Test
+    public void stampsFieldsFromJson() throws IOException {
+        File out = folder.newFile("json.pdf");
+        PdfUtil.createTextFromJson(template, out.getPath(), json(JSON.toJSONString(TestPdfs.fields())), new StampOptions());
+        try (PdfDocument pdfDocument = TestPdfs.open(out)) {
+            TestPdfs.assertFields(pdfDocument);
+        }
+    }
+
+    @Test
+    public void jsonWithoutRequiredPropertiesNamesTheField() throws IOException {
+        String first = "{\"page\":1,\"positionX\":50,\"positionY\":700,\"width\":200,\"height\":30,\"fontSize\":12,\"name\":\"a\"}";
+        assertInvalidJson("[" + first + ",{\"positionX\":50,\"fontSize\":12,\"name\":\"b\"}]",
+                "field 1: page is required");
+        assertInvalidJson("[" + first + "," + first + ",{\"page\":2,\"name\":\"c\"}]",
+                "field 2: fontSize is required unless autoFontSize is set");
+        // 自动字号时可以不填
+        PdfUtil.createTextFromJson(template, folder.newFile().getPath(),
+                json("[{\"page\":2,\"width\":200,\"height\":30,\"autoFontSize\":true,\"name\":\"c\",\"value\":\"auto\"}]"),
+                new StampOptions());
+    }
+
+    private void assertInvalidJson(String json, String message) throws IOException {
+        try {
+            PdfUtil.createTextFromJson(template, folder.newFile().getPath(), json(json), new StampOptions());
+            fail(message);
+        } catch (IllegalArgumentException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class CloseCountingOutputStream extends ByteArrayOutputStream {
+
+        private int closed;
+
+        @Override
+        public void close() {
+            closed++;
+        }
+    }
+}
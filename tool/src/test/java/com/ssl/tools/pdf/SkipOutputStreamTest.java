@@ -0,0 +1,73 @@
+package com.ssl.tools.pdf;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class SkipOutputStreamTest {
+
+    private static final byte[] DATA = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+    @Test
+    public void nothingSkipped() throws IOException {
+        assertArrayEquals(DATA, write(0, 3, 7));
+    }
+
+    @Test
+    public void skipEndsInsideArrayWrite() throws IOException {
+        assertArrayEquals(new byte[]{4, 5, 6, 7, 8, 9}, write(4, 3, 7));
+    }
+
+    @Test
+    public void skipEndsOnWriteBoundary() throws IOException {
+        assertArrayEquals(new byte[]{3, 4, 5, 6, 7, 8, 9}, write(3, 3, 7));
+    }
+
+    @Test
+    public void skipSpansSeveralWrites() throws IOException {
+        assertArrayEquals(new byte[]{8, 9}, write(8, 2, 2, 2, 4));
+    }
+
+    @Test
+    public void skipLongerThanOutput() throws IOException {
+        assertArrayEquals(new byte[0], write(100, 4, 6));
+    }
+
+    @Test
+    public void singleByteWrites() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SkipOutputStream out = new SkipOutputStream(bytes, 2);
+        out.write(DATA, 0, 1);
+        for (int i = 1; i < DATA.length; i++) {
+            out.write(DATA[i]);
+        }
+        assertArrayEquals(new byte[]{2, 3, 4, 5, 6, 7, 8, 9}, bytes.toByteArray());
+    }
+
+    @Test
+    public void offsetOfCallerIsHonoured() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SkipOutputStream out = new SkipOutputStream(bytes, 2);
+        // 从DATA[5]开始写3个，跳过前2个后只剩DATA[7]
+        out.write(DATA, 5, 3);
+        out.write(DATA, 1, 2);
+        assertArrayEquals(new byte[]{7, 1, 2}, bytes.toByteArray());
+    }
+
+    /**
+     * 把DATA按给定的长度分几次写入
+     */
+    private static byte[] write(long skip, int... lengths) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SkipOutputStream out = new SkipOutputStream(bytes, skip);
+        int offset = 0;
+        for (int length : lengths) {
+            out.write(DATA, offset, length);
+            offset += length;
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ssl.tools.pdf;
+
+import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.ssl.tools.PDFModel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * 描述：测试用的模板和表单域
+ */
+class TestPdfs {
+
+    private TestPdfs() {
+    }
+
+    /**
+     * 写一个只有空白页的模板
+     *
+     * @param file  模板文件，已存在时覆盖
+     * @param pages 页数
+     * @return file
+     */
+    static File createTemplate(File file, int pages) throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(file))) {
+            for (int i = 0; i < pages; i++) {
+                pdfDocument.addNewPage();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * 两页各一个表单域，第二页的两个同名表单域按{@link NameAllocator}改名，见{@link #assertFields(PdfDocument)}
+     */
+    static List<PDFModel> fields() {
+        return list(field(1, "first", "one"), field(2, "second", "two"), field(2, "second", "three"));
+    }
+
+    static PDFModel field(int page, String name, String value) {
+        PDFModel model = new PDFModel();
+        model.setPage(page);
+        model.setPositionX(50);
+        model.setPositionY(700);
+        model.setWidth(200);
+        model.setHeight(30);
+        model.setFontSize(12);
+        model.setName(name);
+        model.setValue(value);
+        return model;
+    }
+
+    /**
+     * 可修改的列表
+     */
+    static List<PDFModel> list(PDFModel... models) {
+        return new ArrayList<>(Arrays.asList(models));
+    }
+
+    static PdfDocument open(File pdf) throws IOException {
+        return new PdfDocument(new PdfReader(pdf));
+    }
+
+    static PdfDocument open(ByteArrayOutputStream out) throws IOException {
+        return new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    /**
+     * {@link #fields()}盖在两页模板上的结果
+     */
+    static void assertFields(PdfDocument pdfDocument) {
+        assertEquals(2, pdfDocument.getNumberOfPages());
+        Map<String, PdfFormField> fields = PdfAcroForm.getAcroForm(pdfDocument, false).getFormFields();
+        assertEquals(3, fields.size());
+        assertEquals("one", fields.get("first").getValueAsString());
+        assertEquals("two", fields.get("second").getValueAsString());
+        assertEquals("three", fields.get("second#0").getValueAsString());
+        for (PdfFormField field : fields.values()) {
+            assertNotNull(field.getWidgets().get(0).getNormalAppearanceObject());
+        }
+        assertEquals(1, pdfDocument.getPage(1).getAnnotations().size());
+        assertEquals(2, pdfDocument.getPage(2).getAnnotations().size());
+    }
+}